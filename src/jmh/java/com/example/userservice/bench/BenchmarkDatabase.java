@@ -0,0 +1,75 @@
+package com.example.userservice.bench;
+
+import com.example.userservice.dao.UserDao;
+import com.example.userservice.dao.UserDaoHibernate;
+import com.example.userservice.model.User;
+import com.example.userservice.util.HibernateUtil;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Points HibernateUtil at an in-memory H2 database in PostgreSQL mode unless
+ * -Dhibernate.connection.url is given, e.g. to benchmark against a local PostgreSQL.
+ */
+final class BenchmarkDatabase {
+    private static final String H2_URL =
+            "jdbc:h2:mem:bench;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1";
+
+    private BenchmarkDatabase() {}
+
+    static void configure() {
+        if (System.getProperty("hibernate.connection.url") == null) {
+            System.setProperty("hibernate.connection.url", H2_URL);
+            System.setProperty("hibernate.connection.driver_class", "org.h2.Driver");
+            System.setProperty("hibernate.connection.username", "sa");
+            System.setProperty("hibernate.connection.password", "");
+            System.setProperty("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+            if (!Boolean.getBoolean("userservice.fastStart")) {
+                System.setProperty("hibernate.hbm2ddl.auto", "create-drop");
+            }
+        }
+        setDefault("hibernate.show_sql", "false");
+        setDefault("hibernate.format_sql", "false");
+        HibernateUtil.getSessionFactory();
+    }
+
+    /** Empties the users table and inserts {@code rows} users, returning their ids. */
+    static long[] reset(int rows) {
+        Transaction tx = null;
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            tx = session.beginTransaction();
+            session.createMutationQuery("delete from User").executeUpdate();
+            tx.commit();
+        } catch (RuntimeException e) {
+            if (tx != null) tx.rollback();
+            throw e;
+        }
+        UserDao dao = new UserDaoHibernate();
+        long[] ids = new long[rows];
+        int filled = 0;
+        List<User> chunk = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            chunk.add(user("seed", i));
+            if (chunk.size() == 10_000 || i == rows - 1) {
+                for (User created : dao.createAll(chunk)) {
+                    ids[filled++] = created.getId();
+                }
+                chunk.clear();
+            }
+        }
+        return ids;
+    }
+
+    static User user(String prefix, long n) {
+        return new User(prefix + n, prefix + n + "@bench.example.com", (int) (18 + n % 60));
+    }
+
+    private static void setDefault(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+}
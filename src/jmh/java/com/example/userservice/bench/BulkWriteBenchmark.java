@@ -0,0 +1,82 @@
+package com.example.userservice.bench;
+
+import com.example.userservice.dao.StatelessUserDao;
+import com.example.userservice.dao.UserDao;
+import com.example.userservice.dao.UserDaoHibernate;
+import com.example.userservice.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rows per second for bulk inserts: per-row create vs stateful batched createAll vs StatelessUserDao vs COPY.
+ * On H2 the COPY variant falls back to stateless inserts; point it at PostgreSQL to measure COPY.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+@OperationsPerInvocation(BulkWriteBenchmark.ROWS)
+public class BulkWriteBenchmark {
+    static final int ROWS = 5_000;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private UserDao stateful;
+    private StatelessUserDao stateless;
+    private StatelessUserDao copy;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkDatabase.configure();
+        BenchmarkDatabase.reset(0);
+        stateful = new UserDaoHibernate();
+        stateless = new StatelessUserDao(stateful);
+        copy = new StatelessUserDao(stateful, StatelessUserDao.DEFAULT_BATCH_SIZE, true);
+    }
+
+    @Benchmark
+    public void statefulCreatePerRow() {
+        for (User user : users("row")) {
+            stateful.create(user);
+        }
+    }
+
+    @Benchmark
+    public List<User> statefulCreateAll() {
+        return stateful.createAll(users("stateful"));
+    }
+
+    @Benchmark
+    public List<User> statelessCreateAll() {
+        return stateless.createAll(users("stateless"));
+    }
+
+    @Benchmark
+    public long copyAll() {
+        return copy.copyAll(users("copy").iterator());
+    }
+
+    private List<User> users(String prefix) {
+        List<User> users = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            users.add(BenchmarkDatabase.user(prefix, sequence.incrementAndGet()));
+        }
+        return users;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.userservice.bench;
+
+import com.example.userservice.dao.InMemoryUserDao;
+import com.example.userservice.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link InMemoryUserDao} against a boxed baseline: {@code Long}-keyed and email-keyed hash maps
+ * holding users (concurrent maps, so the baseline stays correct with {@code -t} above 1).
+ * Both return copies on reads. The retained heap per user is printed once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class InMemoryUserDaoBenchmark {
+
+    @Param({"100000"})
+    public int tableSize;
+
+    @Param({"primitive", "boxed"})
+    public String store;
+
+    private InMemoryUserDao dao;
+    private Map<Long, User> byId;
+    private Map<String, User> byEmail;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long before = usedHeap();
+        if (store.equals("primitive")) {
+            dao = new InMemoryUserDao(Runtime.getRuntime().availableProcessors() * 4, tableSize);
+            for (int i = 0; i < tableSize; i++) {
+                dao.create(user(i));
+            }
+        } else {
+            byId = new ConcurrentHashMap<>(tableSize);
+            byEmail = new ConcurrentHashMap<>(tableSize);
+            for (int i = 0; i < tableSize; i++) {
+                User user = user(i);
+                user.setId(i + 1L);
+                user.setCreatedAt(LocalDateTime.now());
+                byId.put(user.getId(), user);
+                byEmail.put(user.getEmail(), user);
+            }
+        }
+        System.out.printf("%n%s: %d bytes per user%n", store, (usedHeap() - before) / tableSize);
+    }
+
+    @Benchmark
+    public Optional<User> findById() {
+        long id = ThreadLocalRandom.current().nextInt(tableSize) + 1L;
+        if (dao != null) {
+            return dao.findById(id);
+        }
+        User user = byId.get(id);
+        return user == null ? Optional.empty() : Optional.of(copy(user));
+    }
+
+    @Benchmark
+    public Optional<User> findByEmail() {
+        String email = email(ThreadLocalRandom.current().nextInt(tableSize));
+        if (dao != null) {
+            return dao.findByEmail(email);
+        }
+        User user = byEmail.get(email);
+        return user == null ? Optional.empty() : Optional.of(copy(user));
+    }
+
+    @Benchmark
+    public int updatePartial() {
+        long id = ThreadLocalRandom.current().nextInt(tableSize) + 1L;
+        int age = ThreadLocalRandom.current().nextInt(18, 90);
+        if (dao != null) {
+            return dao.updatePartial(id, null, null, age);
+        }
+        User updated = byId.computeIfPresent(id, (key, current) -> {
+            User next = copy(current);
+            next.setAge(age);
+            next.setVersion(current.getVersion() + 1);
+            return next;
+        });
+        if (updated == null) {
+            return 0;
+        }
+        byEmail.put(updated.getEmail(), updated);
+        return 1;
+    }
+
+    private static User user(int i) {
+        return new User("User" + i, email(i), 18 + i % 70);
+    }
+
+    private static String email(int i) {
+        return "user" + i + "@bench.example.com";
+    }
+
+    private static User copy(User user) {
+        User copy = new User(user.getName(), user.getEmail(), user.getAge());
+        copy.setId(user.getId());
+        copy.setCreatedAt(user.getCreatedAt());
+        copy.setVersion(user.getVersion());
+        return copy;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
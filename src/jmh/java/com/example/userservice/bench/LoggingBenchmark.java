@@ -0,0 +1,65 @@
+package com.example.userservice.bench;
+
+import com.example.userservice.dao.UserDao;
+import com.example.userservice.dao.UserDaoHibernate;
+import com.example.userservice.model.User;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cost per DAO call under the old logging setup (synchronous console + file,
+ * show_sql/format_sql) versus the prod profile (async loggers, SQL logger off).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoggingBenchmark {
+
+    @Param({"baseline", "prod"})
+    public String logging;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private UserDao dao;
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boolean baseline = "baseline".equals(logging);
+        System.setProperty("log.profile", baseline ? "dev" : "prod");
+        System.setProperty("hibernate.show_sql", String.valueOf(baseline));
+        System.setProperty("hibernate.format_sql", String.valueOf(baseline));
+        Configurator.reconfigure();
+        BenchmarkDatabase.configure();
+        ids = BenchmarkDatabase.reset(1000);
+        dao = new UserDaoHibernate();
+    }
+
+    @Benchmark
+    public User create() {
+        return dao.create(BenchmarkDatabase.user("logged", sequence.incrementAndGet()));
+    }
+
+    @Benchmark
+    public Optional<User> findById() {
+        return dao.findById(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.userservice.bench;
+
+import com.example.userservice.dao.UserDao;
+import com.example.userservice.dao.UserDaoHibernate;
+import com.example.userservice.model.User;
+import com.example.userservice.model.UserSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Managed entities vs record projection for a full-table read.
+ * Run with {@code -prof gc} to compare allocation per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProjectionBenchmark {
+
+    @Param({"10000", "100000"})
+    public int tableSize;
+
+    private UserDao dao;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkDatabase.configure();
+        BenchmarkDatabase.reset(tableSize);
+        dao = new UserDaoHibernate();
+    }
+
+    @Benchmark
+    public List<User> findAll() {
+        return dao.findAll();
+    }
+
+    @Benchmark
+    public List<UserSummary> findAllSummaries() {
+        return dao.findAllSummaries();
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.userservice.bench;
+
+import com.example.userservice.dao.ForwardingUserDao;
+import com.example.userservice.dao.SingleFlightUserDao;
+import com.example.userservice.dao.UserDao;
+import com.example.userservice.dao.UserDaoHibernate;
+import com.example.userservice.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Stampede on a few hot ids: many threads read the same rows at once. The embedded H2 answers in
+ * microseconds, so dbLatencyMicros adds the network round trip a real PostgreSQL would have.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(32)
+@State(Scope.Benchmark)
+public class SingleFlightBenchmark {
+
+    @Param({"direct", "singleFlight"})
+    public String mode;
+
+    @Param({"1", "16"})
+    public int hotKeys;
+
+    @Param({"500"})
+    public long dbLatencyMicros;
+
+    private final LongAdder queries = new LongAdder();
+    private UserDao dao;
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkDatabase.configure();
+        ids = BenchmarkDatabase.reset(hotKeys);
+        UserDao database = new ForwardingUserDao(new UserDaoHibernate()) {
+            @Override
+            public Optional<User> findById(Long id) {
+                queries.increment();
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(dbLatencyMicros));
+                return super.findById(id);
+            }
+        };
+        dao = "singleFlight".equals(mode) ? new SingleFlightUserDao(database) : database;
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        if (dao instanceof SingleFlightUserDao singleFlight) {
+            System.out.println(singleFlight.stats() + ", shared rate " + singleFlight.stats().sharedRate());
+        }
+        System.out.println("Database queries: " + queries.sum());
+    }
+
+    @Benchmark
+    public Optional<User> findHotUser() {
+        return dao.findById(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+    }
+}
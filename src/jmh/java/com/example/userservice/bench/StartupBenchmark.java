@@ -0,0 +1,44 @@
+package com.example.userservice.bench;
+
+import com.example.userservice.util.HibernateUtil;
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold SessionFactory bootstrap, one measurement per fresh JVM.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(5)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+    @Param({"false", "true"})
+    public boolean fastStart;
+
+    @Setup
+    public void setUp() {
+        System.setProperty("userservice.fastStart", String.valueOf(fastStart));
+        System.setProperty("log.profile", "prod");
+    }
+
+    @Benchmark
+    public SessionFactory bootstrap() {
+        BenchmarkDatabase.configure();
+        return HibernateUtil.getSessionFactory();
+    }
+}
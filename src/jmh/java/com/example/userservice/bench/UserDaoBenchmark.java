@@ -0,0 +1,109 @@
+package com.example.userservice.bench;
+
+import com.example.userservice.dao.UserDao;
+import com.example.userservice.dao.UserDaoHibernate;
+import com.example.userservice.model.User;
+import com.example.userservice.service.RetryPolicy;
+import com.example.userservice.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput of the UserDaoHibernate hot paths. Thread count is set with JMH's -t option.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserDaoBenchmark {
+
+    @Param({"1000", "100000"})
+    public int tableSize;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private UserDao dao;
+    private UserService service;
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkDatabase.configure();
+        ids = BenchmarkDatabase.reset(tableSize);
+        dao = new UserDaoHibernate();
+        service = new UserService(dao, RetryPolicy.defaults());
+    }
+
+    @State(Scope.Thread)
+    public static class Victim {
+        long id;
+
+        @Setup(Level.Invocation)
+        public void create(UserDaoBenchmark benchmark) {
+            id = benchmark.dao.create(BenchmarkDatabase.user("victim", benchmark.sequence.incrementAndGet())).getId();
+        }
+    }
+
+    @Benchmark
+    public User create() {
+        return dao.create(BenchmarkDatabase.user("created", sequence.incrementAndGet()));
+    }
+
+    @Benchmark
+    public Optional<User> findById() {
+        return dao.findById(randomId());
+    }
+
+    @Benchmark
+    public List<User> findAll() {
+        return dao.findAll();
+    }
+
+    @Benchmark
+    public List<User> findPageAfter() {
+        return dao.findPageAfter(randomId(), 100);
+    }
+
+    // read-modify-write through UserService, so version conflicts between -t threads are retried as in production
+    @Benchmark
+    public User update() {
+        return service.updateUser(randomId(), user -> user.setAge(ThreadLocalRandom.current().nextInt(18, 90)));
+    }
+
+    // every thread increments ids[0]: throughput under the worst version contention, retries included
+    @Benchmark
+    public User updateHotRow() {
+        return service.updateUser(ids[0], user -> user.setAge(user.getAge() % 100 + 1));
+    }
+
+    @Benchmark
+    public int updatePartial() {
+        return dao.updatePartial(randomId(), null, null, ThreadLocalRandom.current().nextInt(18, 90));
+    }
+
+    @Benchmark
+    public boolean deleteById(Victim victim) {
+        return dao.deleteById(victim.id);
+    }
+
+    private long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+}
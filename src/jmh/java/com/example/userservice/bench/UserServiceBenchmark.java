@@ -0,0 +1,70 @@
+package com.example.userservice.bench;
+
+import com.example.userservice.dao.UserDaoHibernate;
+import com.example.userservice.model.User;
+import com.example.userservice.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserServiceBenchmark {
+
+    @Param({"10000"})
+    public int tableSize;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private UserService service;
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkDatabase.configure();
+        ids = BenchmarkDatabase.reset(tableSize);
+        service = new UserService(new UserDaoHibernate());
+    }
+
+    @Benchmark
+    public User createUser() {
+        long n = sequence.incrementAndGet();
+        return service.createUser("svc" + n, "svc" + n + "@bench.example.com", 30);
+    }
+
+    @Benchmark
+    public Optional<User> getUserById() {
+        return service.getUserById(randomId());
+    }
+
+    @Benchmark
+    public User updateUser() {
+        return service.updateUser(randomId(), null, null, ThreadLocalRandom.current().nextInt(18, 90));
+    }
+
+    @Benchmark
+    public boolean patchUser() {
+        return service.patchUser(randomId(), null, null, ThreadLocalRandom.current().nextInt(18, 90));
+    }
+
+    private long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.userservice.app;
+
+import com.example.userservice.model.User;
+import com.example.userservice.service.UserService;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes every user to a CSV/JSONL file straight from the database cursor.
+ */
+final class ExportCommand {
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final UserService userService;
+
+    ExportCommand(UserService userService) {
+        this.userService = userService;
+    }
+
+    record Result(long exported, long nanos) {
+        double rowsPerSecond() {
+            return nanos == 0 ? 0 : exported * 1e9 / nanos;
+        }
+    }
+
+    Result run(Path file) throws IOException {
+        UserFileFormat format = UserFileFormat.forPath(file);
+        long start = System.nanoTime();
+        long exported = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             Writer out = new BufferedWriter(
+                     Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), BUFFER_SIZE), BUFFER_SIZE);
+             Stream<User> users = userService.streamAllUsers()) {
+            if (format.header() != null) {
+                out.write(format.header());
+                out.write('\n');
+            }
+            StringBuilder line = new StringBuilder(256);
+            for (Iterator<User> it = users.iterator(); it.hasNext(); exported++) {
+                line.setLength(0);
+                format.append(line, it.next());
+                line.append('\n');
+                out.append(line);
+            }
+        }
+        return new Result(exported, System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,293 @@
+package com.example.userservice.app;
+
+import com.example.userservice.exception.DaoException;
+import com.example.userservice.exception.DuplicateEmailException;
+import com.example.userservice.model.User;
+import com.example.userservice.service.AsyncUserService;
+import com.example.userservice.util.ThreadPools;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * JSON CRUD API for users on the JDK HttpServer.
+ * <ul>
+ *   <li>{@code GET /users} streams all users as a JSON array, {@code ?afterId=&limit=} returns one page</li>
+ *   <li>{@code GET|PUT|DELETE /users/{id}}, {@code POST /users}</li>
+ * </ul>
+ * Requests beyond {@code maxInFlight} are rejected with 503, DAO calls slower than
+ * {@code requestTimeout} are answered with 504. If a later page of a streamed list fails,
+ * the connection is dropped so the client does not mistake the truncated array for a complete one.
+ */
+public final class HttpApiServer implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(HttpApiServer.class);
+    private static final String JSON = "application/json; charset=utf-8";
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final int STREAM_PAGE_SIZE = 500;
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AsyncUserService asyncService;
+    private final Semaphore inFlight;
+    private final Duration requestTimeout;
+
+    private HttpApiServer(HttpServer server, ExecutorService executor, AsyncUserService asyncService,
+                          int maxInFlight, Duration requestTimeout) {
+        this.server = server;
+        this.executor = executor;
+        this.asyncService = asyncService;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.requestTimeout = requestTimeout;
+    }
+
+    public static HttpApiServer start(int port, AsyncUserService asyncService, int maxInFlight,
+                                      Duration requestTimeout) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 1024);
+        // spare threads beyond maxInFlight are what answers the 503s under saturation
+        ExecutorService executor = ThreadPools.newTaskExecutor("http",
+                maxInFlight + Runtime.getRuntime().availableProcessors());
+        HttpApiServer api = new HttpApiServer(server, executor, asyncService, maxInFlight, requestTimeout);
+        server.createContext("/users", api::handle);
+        server.setExecutor(executor);
+        server.start();
+        log.info("HTTP API listening on port {}, maxInFlight={}, timeout={}",
+                server.getAddress().getPort(), maxInFlight, requestTimeout);
+        return api;
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+        asyncService.close();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!inFlight.tryAcquire()) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                send(exchange, 503, error("Server is busy"));
+            } else {
+                try {
+                    route(exchange);
+                } catch (IllegalArgumentException e) {
+                    send(exchange, 400, error(e.getMessage()));
+                } catch (DuplicateEmailException e) {
+                    send(exchange, 409, error(e.getMessage()));
+                } catch (TimeoutException e) {
+                    send(exchange, 504, error("Request timed out"));
+                } catch (DaoException e) {
+                    log.error("Request {} {} failed", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+                    send(exchange, 500, error(e.getMessage()));
+                } catch (RuntimeException e) {
+                    log.error("Request {} {} failed", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+                    send(exchange, 500, error("Internal server error"));
+                } finally {
+                    inFlight.release();
+                }
+            }
+        } catch (AbortedResponseException e) {
+            // the exchange is left open on purpose: the server drops the connection before the body is terminated
+            throw e;
+        } catch (IOException e) {
+            log.debug("Client connection failed: {}", e.getMessage());
+        }
+        exchange.close();
+    }
+
+    private void route(HttpExchange exchange) throws IOException, TimeoutException {
+        String path = exchange.getRequestURI().getPath();
+        String method = exchange.getRequestMethod();
+        if (path.equals("/users") || path.equals("/users/")) {
+            switch (method) {
+                case "GET" -> list(exchange);
+                case "POST" -> create(exchange);
+                default -> send(exchange, 405, error("Method not allowed"));
+            }
+            return;
+        }
+        Long id = parseId(path.substring("/users/".length()));
+        switch (method) {
+            case "GET" -> {
+                Optional<User> user = await(asyncService.getUserById(id));
+                if (user.isPresent()) send(exchange, 200, Json.user(user.get()));
+                else send(exchange, 404, error("User not found"));
+            }
+            case "PUT" -> {
+                Map<String, Object> body = readBody(exchange);
+                boolean updated = await(asyncService.patchUser(id,
+                        Json.stringValue(body.get("name"), "name"),
+                        Json.stringValue(body.get("email"), "email"),
+                        Json.intValue(body.get("age"), "age")));
+                if (updated) send(exchange, 204, null);
+                else send(exchange, 404, error("User not found"));
+            }
+            case "DELETE" -> {
+                if (await(asyncService.deleteUser(id))) send(exchange, 204, null);
+                else send(exchange, 404, error("User not found"));
+            }
+            default -> send(exchange, 405, error("Method not allowed"));
+        }
+    }
+
+    private void create(HttpExchange exchange) throws IOException, TimeoutException {
+        Map<String, Object> body = readBody(exchange);
+        User created = await(asyncService.createUser(
+                Json.stringValue(body.get("name"), "name"),
+                Json.stringValue(body.get("email"), "email"),
+                Json.intValue(body.get("age"), "age")));
+        exchange.getResponseHeaders().set("Location", "/users/" + created.getId());
+        send(exchange, 201, Json.user(created));
+    }
+
+    private void list(HttpExchange exchange) throws IOException, TimeoutException {
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        if (query.containsKey("limit")) {
+            Long afterId = query.containsKey("afterId") ? parseId(query.get("afterId")) : null;
+            int limit = parseLimit(query.get("limit"));
+            send(exchange, 200, jsonArray(await(asyncService.getAllUsers(afterId, limit))));
+            return;
+        }
+        // keyset pages keep each DB call short, so a slow client never pins a connection; every page goes
+        // through the async service, so it counts against the DB concurrency limit and requestTimeout
+        List<User> page = await(asyncService.getAllUsers(null, STREAM_PAGE_SIZE));
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(200, 0);
+        Writer out = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8));
+        try {
+            out.write('[');
+            StringBuilder sb = new StringBuilder(256);
+            boolean first = true;
+            while (true) {
+                for (User user : page) {
+                    sb.setLength(0);
+                    if (!first) sb.append(',');
+                    Json.appendUser(sb, user);
+                    out.append(sb);
+                    first = false;
+                }
+                if (page.size() < STREAM_PAGE_SIZE) break;
+                page = await(asyncService.getAllUsers(page.get(page.size() - 1).getId(), STREAM_PAGE_SIZE));
+            }
+            out.write(']');
+        } catch (TimeoutException | RuntimeException e) {
+            // the status is already sent; a closed body would look like a complete array
+            log.error("Streaming {} failed after the response started", exchange.getRequestURI(), e);
+            throw new AbortedResponseException(e);
+        }
+        out.close();
+    }
+
+    private <T> T await(CompletableFuture<T> future) throws TimeoutException {
+        try {
+            return future.get(requestTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TimeoutException("Interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new DaoException("Request failed", e.getCause());
+        }
+    }
+
+    private static Map<String, Object> readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) {
+                throw new IllegalArgumentException("Request body is too large");
+            }
+            return Json.parseObject(new String(body, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static Long parseId(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid ID: " + value);
+        }
+    }
+
+    private static int parseLimit(String value) {
+        try {
+            int limit = Integer.parseInt(value);
+            if (limit > MAX_PAGE_SIZE) throw new IllegalArgumentException("Limit must not exceed " + MAX_PAGE_SIZE);
+            return limit;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid limit: " + value);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) return params;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.put(key, value);
+        }
+        return params;
+    }
+
+    private static String jsonArray(List<User> users) {
+        StringBuilder sb = new StringBuilder(users.size() * 128 + 2).append('[');
+        for (int i = 0; i < users.size(); i++) {
+            if (i > 0) sb.append(',');
+            Json.appendUser(sb, users.get(i));
+        }
+        return sb.append(']').toString();
+    }
+
+    private static String error(String message) {
+        StringBuilder sb = new StringBuilder("{\"error\":");
+        Json.appendString(sb, message);
+        return sb.append('}').toString();
+    }
+
+    private static final class AbortedResponseException extends IOException {
+        AbortedResponseException(Throwable cause) {
+            super("Response aborted", cause);
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.userservice.app;
+
+import com.example.userservice.model.User;
+import com.example.userservice.service.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Streams a CSV/JSONL file into the database: a reader thread parses and validates
+ * lines into batches, the calling thread inserts them through UserService.createUsers
+ * (or upserts them by email through UserService.upsertUsers for idempotent syncs).
+ * The bounded queue between the two keeps memory flat for any file size.
+ */
+final class ImportCommand {
+    private static final Logger log = LoggerFactory.getLogger(ImportCommand.class);
+    private static final int BATCH_SIZE = 1000;
+    private static final int QUEUE_CAPACITY = 4;
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final List<User> END = List.of();
+
+    private final UserService userService;
+    private final boolean upsert;
+
+    ImportCommand(UserService userService) {
+        this(userService, false);
+    }
+
+    ImportCommand(UserService userService, boolean upsert) {
+        this.userService = userService;
+        this.upsert = upsert;
+    }
+
+    record Result(long imported, long rejected, long nanos) {
+        double rowsPerSecond() {
+            return nanos == 0 ? 0 : imported * 1e9 / nanos;
+        }
+    }
+
+    Result run(Path file) throws IOException, InterruptedException {
+        UserFileFormat format = UserFileFormat.forPath(file);
+        BlockingQueue<List<User>> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        AtomicLong rejected = new AtomicLong();
+        AtomicReference<Exception> readerFailure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            try {
+                read(file, format, queue, rejected);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                readerFailure.set(e);
+                queue.clear();
+                queue.offer(END);
+            }
+        }, "import-reader");
+
+        long start = System.nanoTime();
+        long imported = 0;
+        reader.start();
+        try {
+            for (List<User> batch = queue.take(); batch != END; batch = queue.take()) {
+                if (upsert) {
+                    userService.upsertUsers(batch);
+                } else {
+                    userService.createUsers(batch);
+                }
+                imported += batch.size();
+                if (imported % (BATCH_SIZE * 100L) == 0) {
+                    log.info("Imported {} users so far", imported);
+                }
+            }
+        } finally {
+            reader.interrupt();
+            reader.join();
+        }
+        Exception failure = readerFailure.get();
+        if (failure instanceof IOException io) throw io;
+        if (failure != null) throw new IllegalStateException("Failed to read " + file, failure);
+        return new Result(imported, rejected.get(), System.nanoTime() - start);
+    }
+
+    private void read(Path file, UserFileFormat format, BlockingQueue<List<User>> queue, AtomicLong rejected)
+            throws IOException, InterruptedException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             BufferedReader in = new BufferedReader(
+                     Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), BUFFER_SIZE), BUFFER_SIZE)) {
+            UserFileFormat.LineParser parser = format.parser(format.header() == null ? null : in.readLine());
+            long lineNumber = format.header() == null ? 0 : 1;
+            List<User> batch = new ArrayList<>(BATCH_SIZE);
+            for (String line = in.readLine(); line != null; line = in.readLine()) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    User user = parser.parse(line);
+                    userService.validate(user);
+                    batch.add(user);
+                } catch (IllegalArgumentException e) {
+                    rejected.incrementAndGet();
+                    log.warn("Skipping line {}: {}", lineNumber, e.getMessage());
+                }
+                if (batch.size() == BATCH_SIZE) {
+                    queue.put(batch);
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            if (!batch.isEmpty()) {
+                queue.put(batch);
+            }
+            queue.put(END);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.userservice.app;
+
+import com.example.userservice.model.User;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Minimal JSON support for flat user objects: string, number, boolean and null values only.
+ */
+final class Json {
+
+    private Json() {}
+
+    static String user(User user) {
+        StringBuilder sb = new StringBuilder(128);
+        appendUser(sb, user);
+        return sb.toString();
+    }
+
+    static void appendUser(StringBuilder sb, User user) {
+        sb.append("{\"id\":").append(user.getId())
+                .append(",\"name\":");
+        appendString(sb, user.getName());
+        sb.append(",\"email\":");
+        appendString(sb, user.getEmail());
+        sb.append(",\"age\":").append(user.getAge())
+                .append(",\"createdAt\":");
+        appendString(sb, user.getCreatedAt() == null ? null : user.getCreatedAt().toString());
+        sb.append('}');
+    }
+
+    static void appendString(StringBuilder sb, String value) {
+        if (value == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    static Map<String, Object> parseObject(String text) {
+        return new Parser(text).object();
+    }
+
+    static Integer intValue(Object value, String field) {
+        if (value == null) return null;
+        // intValue() would wrap a Long and clamp a Double, so anything outside int range is rejected like a fraction
+        if (value instanceof Number n) {
+            double d = n.doubleValue();
+            if (d == Math.rint(d) && d >= Integer.MIN_VALUE && d <= Integer.MAX_VALUE) return n.intValue();
+        }
+        throw new IllegalArgumentException(field + " must be an integer");
+    }
+
+    static String stringValue(Object value, String field) {
+        if (value == null || value instanceof String) return (String) value;
+        throw new IllegalArgumentException(field + " must be a string");
+    }
+
+    private static final class Parser {
+        private final String text;
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        Map<String, Object> object() {
+            Map<String, Object> result = new LinkedHashMap<>();
+            skipWhitespace();
+            expect('{');
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+                return finish(result);
+            }
+            while (true) {
+                skipWhitespace();
+                String key = string();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                result.put(key, value());
+                skipWhitespace();
+                char c = next();
+                if (c == '}') return finish(result);
+                if (c != ',') throw error("expected ',' or '}'");
+            }
+        }
+
+        private Map<String, Object> finish(Map<String, Object> result) {
+            skipWhitespace();
+            if (pos != text.length()) throw error("unexpected trailing content");
+            return result;
+        }
+
+        private Object value() {
+            char c = peek();
+            if (c == '"') return string();
+            if (text.startsWith("null", pos)) { pos += 4; return null; }
+            if (text.startsWith("true", pos)) { pos += 4; return Boolean.TRUE; }
+            if (text.startsWith("false", pos)) { pos += 5; return Boolean.FALSE; }
+            if (c == '-' || Character.isDigit(c)) return number();
+            throw error("unsupported value");
+        }
+
+        private Number number() {
+            int start = pos;
+            while (pos < text.length() && "+-.eE0123456789".indexOf(text.charAt(pos)) >= 0) pos++;
+            String literal = text.substring(start, pos);
+            try {
+                if (literal.contains(".") || literal.contains("e") || literal.contains("E")) return Double.parseDouble(literal);
+                return Long.parseLong(literal);
+            } catch (NumberFormatException e) {
+                throw error("invalid number " + literal);
+            }
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') return sb.toString();
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                char escaped = next();
+                switch (escaped) {
+                    case '"', '\\', '/' -> sb.append(escaped);
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    case 't' -> sb.append('\t');
+                    case 'u' -> {
+                        if (pos + 4 > text.length()) throw error("truncated unicode escape");
+                        try {
+                            sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("invalid unicode escape");
+                        }
+                        pos += 4;
+                    }
+                    default -> throw error("invalid escape");
+                }
+            }
+        }
+
+        private void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+        }
+
+        private char peek() {
+            if (pos >= text.length()) throw error("unexpected end of input");
+            return text.charAt(pos);
+        }
+
+        private char next() {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        private void expect(char expected) {
+            if (next() != expected) throw error("expected '" + expected + "'");
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Invalid JSON at " + pos + ": " + message);
+        }
+    }
+}
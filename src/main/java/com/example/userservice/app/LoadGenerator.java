@@ -0,0 +1,340 @@
+package com.example.userservice.app;
+
+import com.example.userservice.exception.DaoException;
+import com.example.userservice.model.User;
+import com.example.userservice.service.UserService;
+import com.example.userservice.util.HibernateUtil;
+import com.example.userservice.util.ThreadPools;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ * End-to-end load against {@link UserService} with the DAO stack {@link Main} would use (same system properties).
+ * Workers run a read/update/create/delete mix over a fixed key space with uniform or Zipfian popularity and record
+ * latencies in HdrHistogram recorders, failed calls in separate ones; every {@code reportSeconds} the interval
+ * throughput and p99 are printed.
+ * With a target rate latency is measured from the scheduled start of each call, so stalls are not hidden
+ * (coordinated omission); without one every worker issues calls back to back.
+ * <pre>
+ * java -Duserservice.load.threads=32 -Duserservice.load.distribution=zipfian \
+ *      -cp target/user-service-1.0.0.jar com.example.userservice.app.LoadGenerator results.csv
+ * </pre>
+ */
+public final class LoadGenerator {
+    private static final Logger log = LoggerFactory.getLogger(LoadGenerator.class);
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final int SEED_BATCH_SIZE = 1000;
+
+    enum Operation { READ, UPDATE, CREATE, DELETE }
+
+    enum Distribution { UNIFORM, ZIPFIAN }
+
+    record Config(int threads, boolean virtualThreads, Duration warmup, Duration duration, Duration reportInterval,
+                  int keys, Distribution distribution, double zipfTheta, Map<Operation, Integer> mix,
+                  double targetRate, String label) {
+
+        Config {
+            if (threads <= 0 || keys <= 0) {
+                throw new IllegalArgumentException("Threads and keys must be positive");
+            }
+            if (duration.isZero() || duration.isNegative() || reportInterval.isZero() || reportInterval.isNegative()) {
+                throw new IllegalArgumentException("Duration and report interval must be positive");
+            }
+            if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+                throw new IllegalArgumentException("Operation mix must have a positive weight");
+            }
+            mix = Map.copyOf(mix);
+        }
+
+        static Config fromSystemProperties() {
+            return new Config(
+                    Integer.getInteger("userservice.load.threads", 16),
+                    Boolean.getBoolean("userservice.load.virtualThreads"),
+                    Duration.ofSeconds(Long.getLong("userservice.load.warmupSeconds", 5)),
+                    Duration.ofSeconds(Long.getLong("userservice.load.durationSeconds", 30)),
+                    Duration.ofSeconds(Long.getLong("userservice.load.reportSeconds", 5)),
+                    Integer.getInteger("userservice.load.keys", 10_000),
+                    Distribution.valueOf(System.getProperty("userservice.load.distribution", "uniform")
+                            .toUpperCase(Locale.ROOT)),
+                    Double.parseDouble(System.getProperty("userservice.load.zipfTheta", "0.99")),
+                    parseMix(System.getProperty("userservice.load.mix", "read=80,update=15,create=3,delete=2")),
+                    Double.parseDouble(System.getProperty("userservice.load.rate", "0")),
+                    System.getProperty("userservice.load.label", "default"));
+        }
+
+        String mixText() {
+            return Arrays.stream(Operation.values())
+                    .filter(mix::containsKey)
+                    .map(op -> op.name().toLowerCase(Locale.ROOT) + "=" + mix.get(op))
+                    .collect(Collectors.joining(" "));
+        }
+    }
+
+    private final UserService userService;
+    private final Config config;
+    private final Operation[] weighted;
+    private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+    private final Map<Operation, Recorder> errorRecorders = new EnumMap<>(Operation.class);
+    // users created by this run; deletes take from here so the seeded key space stays intact
+    private final ConcurrentLinkedQueue<Long> created = new ConcurrentLinkedQueue<>();
+    private final AtomicLong emailSequence = new AtomicLong();
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private ZipfianGenerator zipfian;
+    private long[] ids;
+    private volatile boolean running;
+
+    LoadGenerator(UserService userService, Config config) {
+        this.userService = userService;
+        this.config = config;
+        List<Operation> slots = new ArrayList<>();
+        config.mix().forEach((op, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                slots.add(op);
+            }
+        });
+        this.weighted = slots.toArray(Operation[]::new);
+        for (Operation op : Operation.values()) {
+            recorders.put(op, new Recorder(MAX_LATENCY_NANOS, 3));
+            errorRecorders.put(op, new Recorder(MAX_LATENCY_NANOS, 3));
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length > 1) {
+            System.err.println("Usage: LoadGenerator [results.csv|results.json]");
+            System.exit(2);
+        }
+        int status = 0;
+        try {
+            LoadReport report = new LoadGenerator(Main.userService(), Config.fromSystemProperties()).run();
+            System.out.print(report.table());
+            if (args.length == 1) {
+                report.write(Path.of(args[0]));
+                System.out.println("Results written to " + args[0]);
+            }
+        } catch (IOException | IllegalArgumentException | DaoException e) {
+            log.error("Load run failed", e);
+            System.err.println("Load run failed: " + e.getMessage());
+            status = 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status = 1;
+        } finally {
+            HibernateUtil.shutdown();
+        }
+        System.exit(status);
+    }
+
+    LoadReport run() throws InterruptedException {
+        ids = seed();
+        zipfian = config.distribution() == Distribution.ZIPFIAN ? new ZipfianGenerator(ids.length, config.zipfTheta()) : null;
+        System.out.printf(Locale.ROOT, "Running %s for %.1f s (+%.1f s warmup) on %d %s threads over %d keys%n",
+                config.mixText(), config.duration().toMillis() / 1e3, config.warmup().toMillis() / 1e3, config.threads(),
+                config.virtualThreads() && ThreadPools.virtualThreadsAvailable() ? "virtual" : "platform", ids.length);
+
+        ExecutorService workers = config.virtualThreads()
+                ? ThreadPools.newTaskExecutor("load", config.threads())
+                : Executors.newFixedThreadPool(config.threads(), ThreadPools.daemonThreads("load"));
+        Map<Operation, Histogram> totals = new EnumMap<>(Operation.class);
+        Map<Operation, Histogram> errorTotals = new EnumMap<>(Operation.class);
+        for (Operation op : Operation.values()) {
+            totals.put(op, new Histogram(MAX_LATENCY_NANOS, 3));
+            errorTotals.put(op, new Histogram(MAX_LATENCY_NANOS, 3));
+        }
+        running = true;
+        long start = System.nanoTime();
+        for (int i = 0; i < config.threads(); i++) {
+            workers.execute(this::work);
+        }
+        try {
+            long measureStart = start + config.warmup().toNanos();
+            if (!config.warmup().isZero()) {
+                awaitNanos(measureStart);
+                drain(recorders, null);
+                drain(errorRecorders, null);
+            }
+            long end = measureStart + config.duration().toNanos();
+            for (long next = measureStart; next < end; ) {
+                long intervalStart = next;
+                next = Math.min(next + config.reportInterval().toNanos(), end);
+                awaitNanos(next);
+                printInterval((intervalStart - measureStart) / 1e9, (next - intervalStart) / 1e9,
+                        drain(recorders, totals), drain(errorRecorders, errorTotals));
+            }
+        } finally {
+            running = false;
+            workers.shutdown();
+            workers.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        return report(totals, errorTotals, config.duration().toNanos() / 1e9);
+    }
+
+    private void work() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long interval = config.targetRate() > 0 ? (long) (config.threads() * 1e9 / config.targetRate()) : 0;
+        long scheduled = System.nanoTime();
+        while (running) {
+            Operation op = weighted[random.nextInt(weighted.length)];
+            Long victim = null;
+            if (op == Operation.DELETE && (victim = created.poll()) == null) {
+                // nothing left by CREATE: the user to delete is created outside the measured call
+                long start = System.nanoTime();
+                try {
+                    victim = userService.createUser("Load", nextEmail(), 30).getId();
+                } catch (RuntimeException e) {
+                    record(errorRecorders.get(op), start);
+                    log.debug("{} failed to create the user to delete", op, e);
+                    continue;
+                }
+            }
+            long begin;
+            if (interval > 0) {
+                scheduled += interval;
+                sleepUntil(scheduled);
+                begin = scheduled;
+            } else {
+                begin = System.nanoTime();
+            }
+            try {
+                execute(op, random, victim);
+                record(recorders.get(op), begin);
+            } catch (RuntimeException e) {
+                record(errorRecorders.get(op), begin);
+                log.debug("{} failed", op, e);
+            }
+        }
+    }
+
+    private void execute(Operation op, ThreadLocalRandom random, Long victim) {
+        switch (op) {
+            case READ -> userService.getUserById(nextId(random));
+            case UPDATE -> userService.updateUser(nextId(random), user -> user.setAge(random.nextInt(18, 90)));
+            case CREATE -> created.add(userService.createUser("Load", nextEmail(), random.nextInt(18, 90)).getId());
+            case DELETE -> userService.deleteUser(victim);
+        }
+    }
+
+    private static void record(Recorder recorder, long begin) {
+        recorder.recordValue(Math.min(System.nanoTime() - begin, MAX_LATENCY_NANOS));
+    }
+
+    long nextId(ThreadLocalRandom random) {
+        int index = zipfian == null ? random.nextInt(ids.length) : (int) zipfian.next(random.nextDouble());
+        return ids[index];
+    }
+
+    // reuses the users already in the database and only creates what is missing
+    private long[] seed() {
+        List<Long> existing = new ArrayList<>(config.keys());
+        for (Long after = 0L; existing.size() < config.keys(); ) {
+            List<User> page = userService.getAllUsers(after, Math.min(SEED_BATCH_SIZE, config.keys() - existing.size()));
+            if (page.isEmpty()) {
+                break;
+            }
+            page.forEach(user -> existing.add(user.getId()));
+            after = page.get(page.size() - 1).getId();
+        }
+        int missing = config.keys() - existing.size();
+        while (existing.size() < config.keys()) {
+            List<User> batch = new ArrayList<>(SEED_BATCH_SIZE);
+            for (int i = 0; i < SEED_BATCH_SIZE && existing.size() + batch.size() < config.keys(); i++) {
+                batch.add(new User("Load", nextEmail(), 18 + i % 70));
+            }
+            userService.createUsers(batch).forEach(user -> existing.add(user.getId()));
+        }
+        if (missing > 0) {
+            System.out.printf("Seeded %d users%n", missing);
+        }
+        return existing.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private String nextEmail() {
+        return "load-" + runId + "-" + emailSequence.incrementAndGet() + "@example.com";
+    }
+
+    // moves every recorder's interval into totals (null discards it) and returns the interval merged over operations
+    private static Histogram drain(Map<Operation, Recorder> recorders, Map<Operation, Histogram> totals) {
+        Histogram interval = new Histogram(MAX_LATENCY_NANOS, 3);
+        recorders.forEach((op, recorder) -> {
+            Histogram histogram = recorder.getIntervalHistogram();
+            interval.add(histogram);
+            if (totals != null) {
+                totals.get(op).add(histogram);
+            }
+        });
+        return interval;
+    }
+
+    private static void printInterval(double at, double seconds, Histogram interval, Histogram errors) {
+        System.out.printf(Locale.ROOT, "[%6.1f s] %10.1f ops/s  p50 %8.3f ms  p99 %8.3f ms  max %8.3f ms  errors %d%n",
+                at + seconds, interval.getTotalCount() / seconds, interval.getValueAtPercentile(50) / 1e6,
+                interval.getValueAtPercentile(99) / 1e6, interval.getMaxValue() / 1e6, errors.getTotalCount());
+    }
+
+    private LoadReport report(Map<Operation, Histogram> totals, Map<Operation, Histogram> errorTotals, double seconds) {
+        List<LoadReport.Row> rows = new ArrayList<>();
+        Histogram all = new Histogram(MAX_LATENCY_NANOS, 3);
+        Histogram allErrors = new Histogram(MAX_LATENCY_NANOS, 3);
+        for (Operation op : Operation.values()) {
+            if (config.mix().containsKey(op)) {
+                rows.add(LoadReport.Row.of(op.name().toLowerCase(Locale.ROOT), totals.get(op), errorTotals.get(op), seconds));
+                all.add(totals.get(op));
+                allErrors.add(errorTotals.get(op));
+            }
+        }
+        rows.add(LoadReport.Row.of("all", all, allErrors, seconds));
+        boolean virtual = config.virtualThreads() && ThreadPools.virtualThreadsAvailable();
+        return new LoadReport(config.label(), config.threads(), virtual,
+                config.distribution().name().toLowerCase(Locale.ROOT), config.mixText(), seconds, rows);
+    }
+
+    static Map<Operation, Integer> parseMix(String text) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : text.split(",")) {
+            String[] pair = part.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected operation=weight in mix: " + part);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight in mix: " + part);
+            }
+            if (weight > 0) {
+                mix.put(Operation.valueOf(pair[0].trim().toUpperCase(Locale.ROOT)), weight);
+            }
+        }
+        return mix;
+    }
+
+    private static void awaitNanos(long deadline) throws InterruptedException {
+        for (long left = deadline - System.nanoTime(); left > 0; left = deadline - System.nanoTime()) {
+            TimeUnit.NANOSECONDS.sleep(left);
+        }
+    }
+
+    private void sleepUntil(long deadline) {
+        for (long left = deadline - System.nanoTime(); left > 0 && running; left = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(left);
+        }
+    }
+}
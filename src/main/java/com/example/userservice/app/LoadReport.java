@@ -0,0 +1,124 @@
+package com.example.userservice.app;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Result of one {@link LoadGenerator} run: throughput and latency percentiles per operation plus an {@code all} row.
+ * Percentiles cover successful calls; failed calls are counted with their own p99 and max.
+ * CSV output appends one row per operation so several runs can be compared in one file.
+ */
+record LoadReport(String label, int threads, boolean virtualThreads, String distribution, String mix,
+                  double seconds, List<Row> rows) {
+    static final String CSV_HEADER = "label,threads,virtual_threads,distribution,mix,operation,count,errors,"
+            + "ops_per_sec,mean_ms,p50_ms,p90_ms,p99_ms,p999_ms,max_ms,error_p99_ms,error_max_ms";
+
+    record Row(String operation, long count, long errors, double opsPerSecond, double meanMillis,
+               double p50Millis, double p90Millis, double p99Millis, double p999Millis, double maxMillis,
+               double errorP99Millis, double errorMaxMillis) {
+
+        static Row of(String operation, Histogram nanos, Histogram errorNanos, double seconds) {
+            return new Row(operation, nanos.getTotalCount(), errorNanos.getTotalCount(),
+                    seconds == 0 ? 0 : nanos.getTotalCount() / seconds,
+                    nanos.getMean() / 1e6,
+                    nanos.getValueAtPercentile(50) / 1e6,
+                    nanos.getValueAtPercentile(90) / 1e6,
+                    nanos.getValueAtPercentile(99) / 1e6,
+                    nanos.getValueAtPercentile(99.9) / 1e6,
+                    nanos.getMaxValue() / 1e6,
+                    errorNanos.getValueAtPercentile(99) / 1e6,
+                    errorNanos.getMaxValue() / 1e6);
+        }
+    }
+
+    void write(Path file) throws IOException {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            writeCsv(file);
+        } else if (name.endsWith(".json")) {
+            Files.writeString(file, json(), StandardCharsets.UTF_8);
+        } else {
+            throw new IllegalArgumentException("Unsupported report format: " + file + " (expected .csv or .json)");
+        }
+    }
+
+    String table() {
+        StringBuilder sb = new StringBuilder(String.format(Locale.ROOT,
+                "%-8s %10s %7s %10s %9s %9s %9s %9s %9s %9s %9s%n",
+                "op", "count", "errors", "ops/s", "p50 ms", "p90 ms", "p99 ms", "p999 ms", "max ms",
+                "err p99", "err max"));
+        for (Row row : rows) {
+            sb.append(String.format(Locale.ROOT, "%-8s %10d %7d %10.1f %9.3f %9.3f %9.3f %9.3f %9.3f %9.3f %9.3f%n",
+                    row.operation(), row.count(), row.errors(), row.opsPerSecond(), row.p50Millis(),
+                    row.p90Millis(), row.p99Millis(), row.p999Millis(), row.maxMillis(),
+                    row.errorP99Millis(), row.errorMaxMillis()));
+        }
+        return sb.toString();
+    }
+
+    String json() {
+        StringBuilder sb = new StringBuilder(256 + rows.size() * 256);
+        sb.append("{\"label\":");
+        Json.appendString(sb, label);
+        sb.append(",\"threads\":").append(threads)
+                .append(",\"virtualThreads\":").append(virtualThreads)
+                .append(",\"distribution\":");
+        Json.appendString(sb, distribution);
+        sb.append(",\"mix\":");
+        Json.appendString(sb, mix);
+        sb.append(",\"seconds\":").append(number(seconds)).append(",\"operations\":[");
+        for (int i = 0; i < rows.size(); i++) {
+            Row row = rows.get(i);
+            sb.append(i == 0 ? "" : ",").append("{\"operation\":");
+            Json.appendString(sb, row.operation());
+            sb.append(",\"count\":").append(row.count())
+                    .append(",\"errors\":").append(row.errors())
+                    .append(",\"opsPerSec\":").append(number(row.opsPerSecond()))
+                    .append(",\"meanMs\":").append(number(row.meanMillis()))
+                    .append(",\"p50Ms\":").append(number(row.p50Millis()))
+                    .append(",\"p90Ms\":").append(number(row.p90Millis()))
+                    .append(",\"p99Ms\":").append(number(row.p99Millis()))
+                    .append(",\"p999Ms\":").append(number(row.p999Millis()))
+                    .append(",\"maxMs\":").append(number(row.maxMillis()))
+                    .append(",\"errorP99Ms\":").append(number(row.errorP99Millis()))
+                    .append(",\"errorMaxMs\":").append(number(row.errorMaxMillis()))
+                    .append('}');
+        }
+        return sb.append("]}").append(System.lineSeparator()).toString();
+    }
+
+    private void writeCsv(Path file) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        if (!Files.exists(file) || Files.size(file) == 0) {
+            sb.append(CSV_HEADER).append('\n');
+        }
+        for (Row row : rows) {
+            sb.append(csv(label)).append(',').append(threads).append(',').append(virtualThreads).append(',')
+                    .append(distribution).append(',').append(csv(mix)).append(',').append(row.operation()).append(',')
+                    .append(row.count()).append(',').append(row.errors()).append(',')
+                    .append(number(row.opsPerSecond())).append(',').append(number(row.meanMillis())).append(',')
+                    .append(number(row.p50Millis())).append(',').append(number(row.p90Millis())).append(',')
+                    .append(number(row.p99Millis())).append(',').append(number(row.p999Millis())).append(',')
+                    .append(number(row.maxMillis())).append(',').append(number(row.errorP99Millis())).append(',')
+                    .append(number(row.errorMaxMillis())).append('\n');
+        }
+        Files.writeString(file, sb, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static String number(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    private static String csv(String value) {
+        return value.contains(",") || value.contains("\"")
+                ? '"' + value.replace("\"", "\"\"") + '"'
+                : value;
+    }
+}
@@ -2,23 +2,54 @@ package com.example.userservice.app;
 
 import com.example.userservice.exception.DaoException;
 import com.example.userservice.model.User;
+import com.example.userservice.service.AsyncUserService;
+import com.example.userservice.service.RetryPolicy;
 import com.example.userservice.service.UserService;
+import com.example.userservice.dao.CachingUserDao;
+import com.example.userservice.dao.InMemoryUserDao;
+import com.example.userservice.dao.MeteredUserDao;
+import com.example.userservice.dao.SingleFlightUserDao;
+import com.example.userservice.dao.StatelessUserDao;
 import com.example.userservice.dao.UserDao;
 import com.example.userservice.dao.UserDaoHibernate;
+import com.example.userservice.dao.WriteBehindUserDao;
+import com.example.userservice.util.HibernateUtil;
+import com.example.userservice.util.Metrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 import java.util.Scanner;
 
 public class Main {
     private static final Logger log = LoggerFactory.getLogger(Main.class);
-    private static final UserDao userDao = new UserDaoHibernate();
-    private static final UserService userService = new UserService(userDao);
+    private static final int PAGE_SIZE = 100;
+    private static final boolean METRICS_ENABLED = Boolean.getBoolean("userservice.metrics.enabled");
+    private static final boolean IN_MEMORY = "memory".equals(System.getProperty("userservice.dao"));
+    private static final UserDao userDao = buildUserDao();
+    private static final UserService userService = new UserService(userDao, new RetryPolicy(
+            Integer.getInteger("userservice.retry.maxAttempts", RetryPolicy.defaults().maxAttempts()),
+            Duration.ofMillis(Long.getLong("userservice.retry.baseDelayMillis", RetryPolicy.defaults().baseDelay().toMillis())),
+            Duration.ofMillis(Long.getLong("userservice.retry.maxDelayMillis", RetryPolicy.defaults().maxDelay().toMillis()))));
 
     public static void main(String[] args) {
+        if (!IN_MEMORY) {
+            HibernateUtil.startAsync().exceptionally(e -> {
+                log.error("Hibernate bootstrap failed, will retry on first use", e);
+                return null;
+            });
+        }
+        if (args.length > 0) {
+            System.exit(runCommand(args));
+        }
         log.info("User Service started");
+        if (METRICS_ENABLED) {
+            startMetrics();
+        }
         try (Scanner scanner = new Scanner(System.in)) {
             boolean running = true;
             while (running) {
@@ -30,6 +61,9 @@ public class Main {
                     case "3" -> readAll();
                     case "4" -> update(scanner);
                     case "5" -> delete(scanner);
+                    case "6" -> poolStats();
+                    case "7" -> cacheStats();
+                    case "8" -> dumpMetrics();
                     case "0" -> {
                         running = false;
                         System.out.println("Bye!");
@@ -43,6 +77,133 @@ public class Main {
         log.info("User Service stopped");
     }
 
+    // the service with the DAO stack selected by system properties, shared with LoadGenerator
+    static UserService userService() {
+        return userService;
+    }
+
+    private static UserDao buildUserDao() {
+        if (IN_MEMORY) {
+            log.warn("Using the in-memory user store; data is lost on exit");
+            return decorate(new InMemoryUserDao());
+        }
+        UserDao dao = new UserDaoHibernate(
+                Integer.getInteger("userservice.dao.multiLoadBatchSize", UserDaoHibernate.DEFAULT_MULTI_LOAD_BATCH_SIZE));
+        if (Boolean.getBoolean("userservice.dao.stateless")) {
+            dao = new StatelessUserDao(dao,
+                    Integer.getInteger("userservice.dao.batchSize", StatelessUserDao.DEFAULT_BATCH_SIZE),
+                    Boolean.getBoolean("userservice.dao.copy"));
+        }
+        if (Boolean.getBoolean("userservice.writeBehind.enabled")) {
+            WriteBehindUserDao writeBehind = new WriteBehindUserDao(dao,
+                    Integer.getInteger("userservice.writeBehind.maxPending", 10_000),
+                    Integer.getInteger("userservice.writeBehind.batchSize", 500),
+                    Duration.ofMillis(Long.getLong("userservice.writeBehind.flushMillis", 200)),
+                    Metrics.registry());
+            HibernateUtil.registerShutdownAction(writeBehind::close);
+            dao = writeBehind;
+        }
+        return decorate(dao);
+    }
+
+    private static UserDao decorate(UserDao dao) {
+        if (Boolean.getBoolean("userservice.singleFlight.enabled")) {
+            dao = new SingleFlightUserDao(dao);
+        }
+        if (Boolean.getBoolean("userservice.cache.enabled")) {
+            dao = new CachingUserDao(dao,
+                    Integer.getInteger("userservice.cache.maxSize", 10_000),
+                    Duration.ofSeconds(Long.getLong("userservice.cache.ttlSeconds", 60)));
+        }
+        if (METRICS_ENABLED) {
+            dao = new MeteredUserDao(dao, Metrics.registry());
+        }
+        return dao;
+    }
+
+    private static void startMetrics() {
+        if (!IN_MEMORY) {
+            Metrics.bindSessionFactory(HibernateUtil.getSessionFactory(), Metrics.registry());
+        }
+        Integer port = Integer.getInteger("userservice.metrics.port");
+        if (port != null) {
+            try {
+                MetricsEndpoint.start(port);
+            } catch (IOException e) {
+                log.error("Failed to start metrics endpoint on port {}", port, e);
+            }
+        }
+    }
+
+    private static int runCommand(String[] args) {
+        if (args[0].equals("warmup") && args.length == 1) {
+            return warmup();
+        }
+        if (args[0].equals("serve") && args.length <= 2) {
+            return serve(args.length == 2 ? Integer.parseInt(args[1]) : 8080);
+        }
+        if (args.length != 2 || !(args[0].equals("import") || args[0].equals("sync") || args[0].equals("export"))) {
+            System.err.println("Usage: import|sync|export <file.csv|file.jsonl> | serve [port] | warmup");
+            return 2;
+        }
+        Path file = Path.of(args[1]);
+        try {
+            if (args[0].equals("import") || args[0].equals("sync")) {
+                ImportCommand.Result result = new ImportCommand(userService, args[0].equals("sync")).run(file);
+                System.out.printf("Imported %d users (%d rejected) in %.1f s, %.0f rows/s%n",
+                        result.imported(), result.rejected(), result.nanos() / 1e9, result.rowsPerSecond());
+            } else {
+                ExportCommand.Result result = new ExportCommand(userService).run(file);
+                System.out.printf("Exported %d users in %.1f s, %.0f rows/s%n",
+                        result.exported(), result.nanos() / 1e9, result.rowsPerSecond());
+            }
+            return 0;
+        } catch (IOException | IllegalArgumentException | IllegalStateException | DaoException e) {
+            log.error("{} failed", args[0], e);
+            System.err.println(args[0] + " failed: " + e.getMessage());
+            return 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        }
+    }
+
+    // bootstraps Hibernate and exits; used as the AppCDS training run
+    private static int warmup() {
+        try {
+            HibernateUtil.getSessionFactory();
+            System.out.println("Bootstrap: " + HibernateUtil.getBootstrapTimings().map(Object::toString).orElse("n/a"));
+            return 0;
+        } catch (IllegalStateException e) {
+            System.err.println("Warmup failed: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    private static int serve(int port) {
+        if (METRICS_ENABLED) {
+            startMetrics();
+        }
+        // the in-memory store has no connection pool to size against, and must not bootstrap Hibernate
+        AsyncUserService asyncService = IN_MEMORY
+                ? AsyncUserService.create(userService, Runtime.getRuntime().availableProcessors())
+                : AsyncUserService.forConnectionPool(userService);
+        try {
+            HttpApiServer server = HttpApiServer.start(port, asyncService,
+                    Integer.getInteger("userservice.http.maxInFlight", asyncService.maxConcurrency() * 4),
+                    Duration.ofMillis(Long.getLong("userservice.http.timeoutMillis", 5000)));
+            Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+            Thread.currentThread().join();
+            return 0;
+        } catch (IOException e) {
+            log.error("Failed to start HTTP API on port {}", port, e);
+            return 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+    }
+
     private static void printMenu() {
         System.out.println("\n=== USER SERVICE ===");
         System.out.println("1. Create user");
@@ -50,6 +211,9 @@ public class Main {
         System.out.println("3. Read all users");
         System.out.println("4. Update user");
         System.out.println("5. Delete user");
+        System.out.println("6. Connection pool stats");
+        System.out.println("7. Cache stats");
+        System.out.println("8. Dump metrics");
         System.out.println("0. Exit");
         System.out.print("Select: ");
     }
@@ -94,9 +258,14 @@ public class Main {
 
     private static void readAll() {
         try {
-            List<User> users = userService.getAllUsers();
-            if (users.isEmpty()) System.out.println("No users yet.");
-            else users.forEach(System.out::println);
+            Long lastId = null;
+            List<User> page = userService.getAllUsers(lastId, PAGE_SIZE);
+            if (page.isEmpty()) System.out.println("No users yet.");
+            while (!page.isEmpty()) {
+                page.forEach(System.out::println);
+                lastId = page.get(page.size() - 1).getId();
+                page = page.size() < PAGE_SIZE ? List.of() : userService.getAllUsers(lastId, PAGE_SIZE);
+            }
         } catch (DaoException e) {
             System.out.println("Read all failed: " + e.getMessage());
         }
@@ -116,18 +285,20 @@ public class Main {
 
             System.out.print("New name (enter to keep '" + u.getName() + "'): ");
             String name = sc.nextLine().trim();
-            name = name.isEmpty() ? u.getName() : name;
 
             System.out.print("New email (enter to keep '" + u.getEmail() + "'): ");
             String email = sc.nextLine().trim();
-            email = email.isEmpty() ? u.getEmail() : email;
 
             System.out.print("New age (enter to keep " + u.getAge() + "): ");
             String ageStr = sc.nextLine().trim();
-            Integer age = ageStr.isEmpty() ? u.getAge() : Integer.parseInt(ageStr);
+            Integer age = ageStr.isEmpty() ? null : Integer.parseInt(ageStr);
 
-            User updated = userService.updateUser(id, name, email, age);
-            System.out.println("Updated: " + updated);
+            if (name.isEmpty() && email.isEmpty() && age == null) {
+                System.out.println("Nothing to change.");
+                return;
+            }
+            boolean ok = userService.patchUser(id, name, email, age);
+            System.out.println(ok ? "Updated." : "User not found.");
         } catch (NumberFormatException e) {
             System.out.println("Age/ID must be a number.");
         } catch (IllegalArgumentException e) {
@@ -151,4 +322,20 @@ public class Main {
             System.out.println("Delete failed: " + e.getMessage());
         }
     }
+
+    private static void poolStats() {
+        System.out.println(HibernateUtil.getPoolStats()
+                .map(Object::toString)
+                .orElse("Connection pool metrics are not available."));
+    }
+
+    private static void cacheStats() {
+        if (userDao instanceof CachingUserDao cache) System.out.println(cache.stats());
+        else System.out.println("Cache is disabled.");
+    }
+
+    private static void dumpMetrics() {
+        if (METRICS_ENABLED) System.out.println(Metrics.scrape());
+        else System.out.println("Metrics are disabled.");
+    }
 }
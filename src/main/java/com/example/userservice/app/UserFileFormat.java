@@ -0,0 +1,143 @@
+package com.example.userservice.app;
+
+import com.example.userservice.model.User;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Line-oriented user file formats for import/export. CSV files start with a header
+ * row; quoted fields may contain commas and quotes. Line breaks are written as spaces.
+ */
+enum UserFileFormat {
+    CSV {
+        @Override
+        String header() {
+            return "id,name,email,age,created_at";
+        }
+
+        @Override
+        LineParser parser(String header) {
+            if (header == null) {
+                throw new IllegalArgumentException("CSV file is empty, expected a header row");
+            }
+            List<String> columns = splitCsv(header).stream()
+                    .map(column -> column.trim().toLowerCase(Locale.ROOT))
+                    .toList();
+            int name = columns.indexOf("name");
+            int email = columns.indexOf("email");
+            int age = columns.indexOf("age");
+            if (name < 0 || email < 0) {
+                throw new IllegalArgumentException("CSV header must contain name and email columns");
+            }
+            return line -> {
+                List<String> fields = splitCsv(line);
+                if (fields.size() != columns.size()) {
+                    throw new IllegalArgumentException("expected " + columns.size() + " fields but got " + fields.size());
+                }
+                String ageValue = age < 0 ? "" : fields.get(age).trim();
+                return new User(fields.get(name).trim(), fields.get(email).trim(),
+                        ageValue.isEmpty() ? null : Integer.valueOf(ageValue));
+            };
+        }
+
+        @Override
+        void append(StringBuilder sb, User user) {
+            sb.append(user.getId()).append(',');
+            appendCsv(sb, user.getName());
+            sb.append(',');
+            appendCsv(sb, user.getEmail());
+            sb.append(',');
+            if (user.getAge() != null) sb.append(user.getAge());
+            sb.append(',');
+            if (user.getCreatedAt() != null) sb.append(user.getCreatedAt());
+        }
+    },
+
+    JSONL {
+        @Override
+        String header() {
+            return null;
+        }
+
+        @Override
+        LineParser parser(String header) {
+            return line -> {
+                Map<String, Object> fields = Json.parseObject(line);
+                return new User(Json.stringValue(fields.get("name"), "name"),
+                        Json.stringValue(fields.get("email"), "email"),
+                        Json.intValue(fields.get("age"), "age"));
+            };
+        }
+
+        @Override
+        void append(StringBuilder sb, User user) {
+            Json.appendUser(sb, user);
+        }
+    };
+
+    interface LineParser {
+        User parse(String line);
+    }
+
+    /** Header line written before the records, or null when the format has none. */
+    abstract String header();
+
+    abstract LineParser parser(String header);
+
+    abstract void append(StringBuilder sb, User user);
+
+    static UserFileFormat forPath(Path path) {
+        String fileName = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (fileName.endsWith(".csv")) return CSV;
+        if (fileName.endsWith(".jsonl") || fileName.endsWith(".ndjson")) return JSONL;
+        throw new IllegalArgumentException("Unsupported file type, expected .csv or .jsonl: " + path);
+    }
+
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    // UserService rejects line breaks; older rows may still have them, and a record must stay on one line
+    private static void appendCsv(StringBuilder sb, String value) {
+        if (value == null) return;
+        if (value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            value = value.replace("\r\n", " ").replace('\r', ' ').replace('\n', ' ');
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            sb.append(value);
+            return;
+        }
+        sb.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+}
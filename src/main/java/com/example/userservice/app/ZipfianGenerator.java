@@ -0,0 +1,48 @@
+package com.example.userservice.app;
+
+/**
+ * Zipf-distributed ranks in {@code [0, items)}, rank 0 being the most popular, after Gray et al.,
+ * "Quickly generating billion-record synthetic databases" (the generator YCSB uses).
+ * The zeta constant is computed once in O(items); drawing a rank is O(1).
+ */
+final class ZipfianGenerator {
+    private final long items;
+    private final double theta;
+    private final double zetan;
+    private final double alpha;
+    private final double eta;
+
+    ZipfianGenerator(long items, double theta) {
+        if (items <= 0) {
+            throw new IllegalArgumentException("Item count must be positive");
+        }
+        if (theta <= 0 || theta >= 1) {
+            throw new IllegalArgumentException("Zipf theta must be between 0 and 1 exclusive");
+        }
+        this.items = items;
+        this.theta = theta;
+        this.zetan = zeta(items, theta);
+        this.alpha = 1.0 / (1.0 - theta);
+        this.eta = (1 - Math.pow(2.0 / items, 1 - theta)) / (1 - zeta(2, theta) / zetan);
+    }
+
+    /** Maps a uniform {@code u} in {@code [0, 1)} to a rank. */
+    long next(double u) {
+        double uz = u * zetan;
+        if (uz < 1.0 || items == 1) {
+            return 0;
+        }
+        if (uz < 1.0 + Math.pow(0.5, theta)) {
+            return 1;
+        }
+        return Math.min(items - 1, (long) (items * Math.pow(eta * u - eta + 1, alpha)));
+    }
+
+    private static double zeta(long n, double theta) {
+        double sum = 0;
+        for (long i = 1; i <= n; i++) {
+            sum += 1 / Math.pow(i, theta);
+        }
+        return sum;
+    }
+}
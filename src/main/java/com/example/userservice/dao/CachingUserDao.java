@@ -0,0 +1,224 @@
+package com.example.userservice.dao;
+
+import com.example.userservice.model.User;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Read-through cache for findById with LRU size bound and TTL expiry.
+ * Writes going through this DAO invalidate the affected ids. The cache keeps its own copy of each user
+ * and hands out a fresh copy on every hit, so callers may modify what they get back.
+ */
+public class CachingUserDao extends ForwardingUserDao {
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final LinkedHashMap<Long, Entry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long generation;
+
+    public CachingUserDao(UserDao delegate, int maxSize, Duration ttl) {
+        this(delegate, maxSize, ttl, System::nanoTime);
+    }
+
+    CachingUserDao(UserDao delegate, int maxSize, Duration ttl, LongSupplier clock) {
+        super(delegate);
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        long loadGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(id);
+            if (entry != null && clock.getAsLong() - entry.loadedAt < ttlNanos) {
+                hits.increment();
+                return Optional.of(copy(entry.user));
+            }
+            if (entry != null) {
+                entries.remove(id);
+                evictions.increment();
+            }
+            loadGeneration = generation;
+        }
+        misses.increment();
+        Optional<User> loaded = delegate.findById(id);
+        loaded.ifPresent(user -> put(id, user, loadGeneration));
+        return loaded;
+    }
+
+    @Override
+    public List<User> findAllById(Collection<Long> ids) {
+        Map<Long, User> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        long loadGeneration;
+        synchronized (this) {
+            long now = clock.getAsLong();
+            for (Long id : new LinkedHashSet<>(ids)) {
+                Entry entry = entries.get(id);
+                if (entry != null && now - entry.loadedAt < ttlNanos) {
+                    found.put(id, copy(entry.user));
+                } else {
+                    missing.add(id);
+                }
+            }
+            loadGeneration = generation;
+        }
+        hits.add(found.size());
+        misses.add(missing.size());
+        if (!missing.isEmpty()) {
+            for (User user : delegate.findAllById(missing)) {
+                found.put(user.getId(), user);
+                put(user.getId(), user, loadGeneration);
+            }
+        }
+        return ids.stream()
+                .distinct()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    public User upsertByEmail(User user) {
+        User upserted = delegate.upsertByEmail(user);
+        invalidate(upserted.getId());
+        return upserted;
+    }
+
+    @Override
+    public List<User> upsertAll(Collection<User> users) {
+        List<User> upserted;
+        try {
+            upserted = delegate.upsertAll(users);
+        } catch (RuntimeException e) {
+            // chunks committed before the failure are unknown here
+            invalidateAll();
+            throw e;
+        }
+        synchronized (this) {
+            generation++;
+            upserted.forEach(user -> entries.remove(user.getId()));
+        }
+        return upserted;
+    }
+
+    @Override
+    public User update(User user) {
+        try {
+            return delegate.update(user);
+        } finally {
+            invalidate(user.getId());
+        }
+    }
+
+    @Override
+    public int updatePartial(Long id, String name, String email, Integer age) {
+        try {
+            return delegate.updatePartial(id, name, email, age);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    @Override
+    public List<Long> updateAll(Collection<VersionedUpdate> updates) {
+        try {
+            return delegate.updateAll(updates);
+        } finally {
+            synchronized (this) {
+                generation++;
+                updates.forEach(update -> entries.remove(update.user().getId()));
+            }
+        }
+    }
+
+    @Override
+    public int updateAgeWhere(int minAge, int maxAge, Integer newAge) {
+        try {
+            return delegate.updateAgeWhere(minAge, maxAge, newAge);
+        } finally {
+            invalidateAll();
+        }
+    }
+
+    @Override
+    public boolean deleteById(Long id) {
+        try {
+            return delegate.deleteById(id);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    @Override
+    public int deleteAllById(Collection<Long> ids) {
+        try {
+            return delegate.deleteAllById(ids);
+        } finally {
+            synchronized (this) {
+                generation++;
+                ids.forEach(entries::remove);
+            }
+        }
+    }
+
+    public synchronized void invalidate(Long id) {
+        generation++;
+        entries.remove(id);
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+
+    public synchronized CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), entries.size());
+    }
+
+    // a load that raced with an invalidation may carry stale data, so it is not cached
+    private synchronized void put(Long id, User user, long loadGeneration) {
+        if (loadGeneration != generation) {
+            return;
+        }
+        entries.put(id, new Entry(copy(user), clock.getAsLong()));
+        Iterator<Map.Entry<Long, Entry>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxSize && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private static User copy(User user) {
+        User copy = new User(user.getName(), user.getEmail(), user.getAge());
+        copy.setId(user.getId());
+        copy.setCreatedAt(user.getCreatedAt());
+        copy.setVersion(user.getVersion());
+        return copy;
+    }
+
+    private record Entry(User user, long loadedAt) {
+    }
+}
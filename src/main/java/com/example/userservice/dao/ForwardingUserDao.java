@@ -0,0 +1,90 @@
+package com.example.userservice.dao;
+
+import com.example.userservice.model.User;
+import com.example.userservice.model.UserSummary;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Base class for UserDao decorators; forwards every call to the wrapped DAO.
+ */
+public abstract class ForwardingUserDao implements UserDao {
+    protected final UserDao delegate;
+
+    protected ForwardingUserDao(UserDao delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public User create(User user) { return delegate.create(user); }
+
+    @Override
+    public List<User> createAll(Collection<User> users) { return delegate.createAll(users); }
+
+    @Override
+    public User upsertByEmail(User user) { return delegate.upsertByEmail(user); }
+
+    @Override
+    public List<User> upsertAll(Collection<User> users) { return delegate.upsertAll(users); }
+
+    @Override
+    public Optional<User> findById(Long id) { return delegate.findById(id); }
+
+    @Override
+    public List<User> findAllById(Collection<Long> ids) { return delegate.findAllById(ids); }
+
+    @Override
+    public Optional<User> findByEmail(String email) { return delegate.findByEmail(email); }
+
+    @Override
+    public boolean existsByEmail(String email) { return delegate.existsByEmail(email); }
+
+    @Override
+    public List<User> findByEmails(Collection<String> emails) { return delegate.findByEmails(emails); }
+
+    @Override
+    public List<User> findAll() { return delegate.findAll(); }
+
+    @Override
+    public List<User> findPageAfter(Long lastId, int limit) { return delegate.findPageAfter(lastId, limit); }
+
+    @Override
+    public List<User> find(UserQuery query) { return delegate.find(query); }
+
+    @Override
+    public long count(UserQuery query) { return delegate.count(query); }
+
+    @Override
+    public List<UserSummary> findAllSummaries() { return delegate.findAllSummaries(); }
+
+    @Override
+    public List<UserSummary> findSummaries(UserQuery query) { return delegate.findSummaries(query); }
+
+    @Override
+    public Stream<User> streamAll() { return delegate.streamAll(); }
+
+    @Override
+    public User update(User user) { return delegate.update(user); }
+
+    @Override
+    public int updatePartial(Long id, String name, String email, Integer age) {
+        return delegate.updatePartial(id, name, email, age);
+    }
+
+    @Override
+    public List<Long> updateAll(Collection<VersionedUpdate> updates) { return delegate.updateAll(updates); }
+
+    @Override
+    public int updateAgeWhere(int minAge, int maxAge, Integer newAge) {
+        return delegate.updateAgeWhere(minAge, maxAge, newAge);
+    }
+
+    @Override
+    public boolean deleteById(Long id) { return delegate.deleteById(id); }
+
+    @Override
+    public int deleteAllById(Collection<Long> ids) { return delegate.deleteAllById(ids); }
+}
@@ -0,0 +1,526 @@
+package com.example.userservice.dao;
+
+import com.example.userservice.exception.ConcurrentUpdateException;
+import com.example.userservice.exception.DaoException;
+import com.example.userservice.exception.DuplicateEmailException;
+import com.example.userservice.model.User;
+import com.example.userservice.model.UserSummary;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * UserDao kept entirely in memory, for tests and hot working sets. Rows are immutable snapshots
+ * in lock-striped {@link LongObjectMap}s keyed by primitive id, with a concurrent email index
+ * pointing at the same snapshots. Reads by id are optimistic and take no lock in the common case.
+ * <p>
+ * Mirrors {@link UserDaoHibernate}: unique emails ({@link DuplicateEmailException}), versioned
+ * updates ({@link ConcurrentUpdateException}), column limits and detached copies on every read.
+ * Multi-row operations are atomic per row, not as a whole.
+ */
+public class InMemoryUserDao implements UserDao {
+    private static final int CHUNK_SIZE = 1000;
+
+    private final Stripe[] stripes;
+    private final ConcurrentHashMap<String, Row> byEmail;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public InMemoryUserDao() {
+        this(Runtime.getRuntime().availableProcessors() * 4, 1024);
+    }
+
+    public InMemoryUserDao(int concurrency, int expectedSize) {
+        if (concurrency <= 0 || expectedSize < 0) {
+            throw new IllegalArgumentException("Concurrency must be positive and expected size not negative");
+        }
+        int count = concurrency == 1 ? 1 : Integer.highestOneBit(concurrency - 1) << 1;
+        stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(expectedSize / count);
+        }
+        byEmail = new ConcurrentHashMap<>(expectedSize);
+    }
+
+    @Override
+    public User create(User user) {
+        if (user.getId() != null) {
+            throw new DaoException("Failed to create user", new IllegalArgumentException("User already has id=" + user.getId()));
+        }
+        checkColumns(user.getName(), user.getEmail(), "Failed to create user");
+        Row row = new Row(sequence.incrementAndGet(), user.getName(), user.getEmail(), user.getAge(),
+                LocalDateTime.now(), 0);
+        if (!insert(row)) {
+            throw new DuplicateEmailException("Email must be unique: " + user.getEmail());
+        }
+        user.setId(row.id);
+        user.setCreatedAt(row.createdAt);
+        user.setVersion(0);
+        return user;
+    }
+
+    /**
+     * Inserts in chunks of 1000 users; a failing chunk is rolled back, earlier chunks stay.
+     */
+    @Override
+    public List<User> createAll(Collection<User> users) {
+        List<User> created = new ArrayList<>(users.size());
+        Iterator<User> iterator = users.iterator();
+        while (iterator.hasNext()) {
+            List<User> chunk = new ArrayList<>(CHUNK_SIZE);
+            try {
+                while (iterator.hasNext() && chunk.size() < CHUNK_SIZE) {
+                    User user = iterator.next();
+                    create(user);
+                    chunk.add(user);
+                }
+            } catch (DaoException e) {
+                chunk.forEach(user -> deleteById(user.getId()));
+                if (e instanceof DuplicateEmailException) {
+                    throw new DuplicateEmailException("Email must be unique; " + created.size()
+                            + " users were created before the failing chunk", e);
+                }
+                throw new DaoException("Failed to create users; " + created.size()
+                        + " users were created before the failing chunk", e);
+            }
+            created.addAll(chunk);
+        }
+        return created;
+    }
+
+    @Override
+    public User upsertByEmail(User user) {
+        return upsertAll(List.of(user)).get(0);
+    }
+
+    @Override
+    public List<User> upsertAll(Collection<User> users) {
+        List<User> upserted = new ArrayList<>(users.size());
+        Iterator<User> iterator = users.iterator();
+        while (iterator.hasNext()) {
+            List<User> chunk = new ArrayList<>(CHUNK_SIZE);
+            while (iterator.hasNext() && chunk.size() < CHUNK_SIZE) {
+                chunk.add(iterator.next());
+            }
+            Map<String, User> last = new LinkedHashMap<>();
+            chunk.forEach(user -> last.put(user.getEmail(), user));
+            Map<String, Long> ids = new LinkedHashMap<>();
+            for (User user : last.values()) {
+                checkColumns(user.getName(), user.getEmail(), "Failed to upsert " + chunk.size() + " users by email");
+                ids.put(user.getEmail(), upsert(user));
+            }
+            chunk.forEach(user -> user.setId(ids.get(user.getEmail())));
+            upserted.addAll(chunk);
+        }
+        return upserted;
+    }
+
+    private long upsert(User user) {
+        while (true) {
+            Row existing = byEmail.get(user.getEmail());
+            if (existing == null) {
+                Row row = new Row(sequence.incrementAndGet(), user.getName(), user.getEmail(), user.getAge(),
+                        LocalDateTime.now(), 0);
+                if (insert(row)) {
+                    return row.id;
+                }
+                continue;
+            }
+            Stripe stripe = stripe(existing.id);
+            long stamp = stripe.lock.writeLock();
+            try {
+                // the row may have been replaced or deleted since the index lookup
+                if (stripe.rows.get(existing.id) == existing) {
+                    replace(stripe, existing, existing.with(user.getName(), existing.email, user.getAge()));
+                    return existing.id;
+                }
+            } finally {
+                stripe.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        if (id == null) {
+            throw new DaoException("Failed to read user by id=null", new IllegalArgumentException("Id must not be null"));
+        }
+        Row row = get(id);
+        return row == null ? Optional.empty() : Optional.of(row.toUser());
+    }
+
+    @Override
+    public List<User> findAllById(Collection<Long> ids) {
+        List<User> found = new ArrayList<>(ids.size());
+        for (Long id : new LinkedHashSet<>(ids)) {
+            Row row = id == null ? null : get(id);
+            if (row != null) {
+                found.add(row.toUser());
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        Row row = email == null ? null : byEmail.get(email);
+        return row == null ? Optional.empty() : Optional.of(row.toUser());
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return email != null && byEmail.containsKey(email);
+    }
+
+    @Override
+    public List<User> findByEmails(Collection<String> emails) {
+        List<User> found = new ArrayList<>(emails.size());
+        for (String email : new LinkedHashSet<>(emails)) {
+            Row row = email == null ? null : byEmail.get(email);
+            if (row != null) {
+                found.add(row.toUser());
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public List<User> findAll() {
+        return snapshot(row -> true).stream().map(Row::toUser).toList();
+    }
+
+    @Override
+    public List<User> findPageAfter(Long lastId, int limit) {
+        long after = lastId == null ? 0L : lastId;
+        return snapshot(row -> row.id > after).stream().limit(limit).map(Row::toUser).toList();
+    }
+
+    @Override
+    public List<User> find(UserQuery query) {
+        return select(query).map(Row::toUser).toList();
+    }
+
+    @Override
+    public long count(UserQuery query) {
+        return snapshot(matcher(query)).size();
+    }
+
+    @Override
+    public List<UserSummary> findAllSummaries() {
+        return snapshot(row -> true).stream().map(Row::toSummary).toList();
+    }
+
+    @Override
+    public List<UserSummary> findSummaries(UserQuery query) {
+        return select(query).map(Row::toSummary).toList();
+    }
+
+    /** Streams a snapshot taken when the stream is created; closing it is optional. */
+    @Override
+    public Stream<User> streamAll() {
+        return snapshot(row -> true).stream().map(Row::toUser);
+    }
+
+    /** Like a Hibernate merge: a user without id is created, a stale version is rejected. */
+    @Override
+    public User update(User user) {
+        if (user.getId() == null) {
+            return create(new User(user.getName(), user.getEmail(), user.getAge()));
+        }
+        checkColumns(user.getName(), user.getEmail(), "Failed to update user id=" + user.getId());
+        Stripe stripe = stripe(user.getId());
+        long stamp = stripe.lock.writeLock();
+        try {
+            Row current = stripe.rows.get(user.getId());
+            if (current == null || current.version != user.getVersion()) {
+                throw new ConcurrentUpdateException("User id=" + user.getId()
+                        + " was modified concurrently (version " + user.getVersion() + ")");
+            }
+            // like @DynamicUpdate with nothing dirty: no write, no version bump
+            if (current.sameValues(user.getName(), user.getEmail(), user.getAge())) {
+                return current.toUser();
+            }
+            Row updated = current.with(user.getName(), user.getEmail(), user.getAge());
+            replace(stripe, current, updated);
+            return updated.toUser();
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public int updatePartial(Long id, String name, String email, Integer age) {
+        if (id == null) {
+            return 0;
+        }
+        Stripe stripe = stripe(id);
+        long stamp = stripe.lock.writeLock();
+        try {
+            Row current = stripe.rows.get(id);
+            if (current == null) {
+                return 0;
+            }
+            if (name == null && email == null && age == null) {
+                return 1;
+            }
+            Row updated = current.with(name == null ? current.name : name, email == null ? current.email : email,
+                    age == null ? current.age : age);
+            checkColumns(updated.name, updated.email, "Failed to update user id=" + id);
+            replace(stripe, current, updated);
+            return 1;
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public List<Long> updateAll(Collection<VersionedUpdate> updates) {
+        List<Long> skipped = new ArrayList<>();
+        for (VersionedUpdate update : updates) {
+            User user = update.user();
+            checkColumns(user.getName(), user.getEmail(), "Failed to update user id=" + user.getId());
+            Stripe stripe = stripe(user.getId());
+            long stamp = stripe.lock.writeLock();
+            try {
+                Row current = stripe.rows.get(user.getId());
+                if (current == null || current.version != update.expectedVersion()) {
+                    skipped.add(user.getId());
+                    continue;
+                }
+                replace(stripe, current, new Row(current.id, user.getName(), user.getEmail(), user.getAge(),
+                        current.createdAt, user.getVersion()));
+            } finally {
+                stripe.lock.unlockWrite(stamp);
+            }
+        }
+        return skipped;
+    }
+
+    @Override
+    public int updateAgeWhere(int minAge, int maxAge, Integer newAge) {
+        int updated = 0;
+        for (Stripe stripe : stripes) {
+            long stamp = stripe.lock.writeLock();
+            try {
+                List<Row> matching = new ArrayList<>();
+                stripe.rows.forEachValue(row -> {
+                    if (row.age != null && row.age >= minAge && row.age <= maxAge) {
+                        matching.add(row);
+                    }
+                });
+                for (Row row : matching) {
+                    replace(stripe, row, row.with(row.name, row.email, newAge));
+                }
+                updated += matching.size();
+            } finally {
+                stripe.lock.unlockWrite(stamp);
+            }
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean deleteById(Long id) {
+        if (id == null) {
+            return false;
+        }
+        Stripe stripe = stripe(id);
+        long stamp = stripe.lock.writeLock();
+        try {
+            Row removed = stripe.rows.remove(id);
+            if (removed == null) {
+                return false;
+            }
+            byEmail.remove(removed.email, removed);
+            return true;
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public int deleteAllById(Collection<Long> ids) {
+        int deleted = 0;
+        for (Long id : new LinkedHashSet<>(ids)) {
+            if (deleteById(id)) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Stores users with their own ids, versions and creation times, replacing rows with the same id
+     * and evicting other rows that hold the same email. Use it to warm this DAO from another store.
+     */
+    public void load(Collection<User> users) {
+        for (User user : users) {
+            checkColumns(user.getName(), user.getEmail(), "Failed to load user id=" + user.getId());
+            Row row = new Row(Objects.requireNonNull(user.getId(), "id"), user.getName(), user.getEmail(),
+                    user.getAge(), user.getCreatedAt() == null ? LocalDateTime.now() : user.getCreatedAt(),
+                    user.getVersion());
+            sequence.accumulateAndGet(row.id, Math::max);
+            deleteById(row.id);
+            while (!insert(row)) {
+                Row holder = byEmail.get(row.email);
+                if (holder != null) {
+                    deleteById(holder.id);
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return byEmail.size();
+    }
+
+    // the email is claimed under the stripe lock, so the index never points at a row another writer is replacing
+    private boolean insert(Row row) {
+        Stripe stripe = stripe(row.id);
+        long stamp = stripe.lock.writeLock();
+        try {
+            if (byEmail.putIfAbsent(row.email, row) != null) {
+                return false;
+            }
+            stripe.rows.put(row.id, row);
+            return true;
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    // caller holds the stripe's write lock
+    private void replace(Stripe stripe, Row current, Row updated) {
+        if (current.email.equals(updated.email)) {
+            byEmail.put(updated.email, updated);
+        } else {
+            if (byEmail.putIfAbsent(updated.email, updated) != null) {
+                throw new DuplicateEmailException("Email must be unique: " + updated.email);
+            }
+            byEmail.remove(current.email, current);
+        }
+        stripe.rows.put(updated.id, updated);
+    }
+
+    private Row get(long id) {
+        Stripe stripe = stripe(id);
+        long stamp = stripe.lock.tryOptimisticRead();
+        Row row = stripe.rows.get(id);
+        if (stripe.lock.validate(stamp)) {
+            return row;
+        }
+        stamp = stripe.lock.readLock();
+        try {
+            return stripe.rows.get(id);
+        } finally {
+            stripe.lock.unlockRead(stamp);
+        }
+    }
+
+    // consistent per stripe, not across stripes; sorted by id
+    private List<Row> snapshot(Predicate<Row> filter) {
+        List<Row> rows = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            long stamp = stripe.lock.readLock();
+            try {
+                stripe.rows.forEachValue(row -> {
+                    if (filter.test(row)) {
+                        rows.add(row);
+                    }
+                });
+            } finally {
+                stripe.lock.unlockRead(stamp);
+            }
+        }
+        rows.sort(Comparator.comparingLong(Row::id));
+        return rows;
+    }
+
+    private Stream<Row> select(UserQuery query) {
+        return snapshot(matcher(query)).stream()
+                .sorted(order(query.sort()))
+                .limit(query.limit());
+    }
+
+    // same semantics as the Criteria predicates: case-insensitive prefix, inclusive ages, strictly after
+    private static Predicate<Row> matcher(UserQuery query) {
+        String prefix = query.namePrefix() == null ? null : query.namePrefix().toLowerCase(Locale.ROOT);
+        return row -> (prefix == null || row.name.toLowerCase(Locale.ROOT).startsWith(prefix))
+                && (query.minAge() == null || (row.age != null && row.age >= query.minAge()))
+                && (query.maxAge() == null || (row.age != null && row.age <= query.maxAge()))
+                && (query.createdAfter() == null || row.createdAt.isAfter(query.createdAfter()))
+                && (query.createdBefore() == null || row.createdAt.isBefore(query.createdBefore()));
+    }
+
+    // ties broken by id; null ages sort last as in PostgreSQL
+    private static Comparator<Row> order(UserQuery.Sort sort) {
+        Comparator<Row> byId = Comparator.comparingLong(Row::id);
+        return switch (sort) {
+            case ID -> byId;
+            case NAME -> Comparator.comparing(Row::name).thenComparing(byId);
+            case AGE -> Comparator.comparing(Row::age, Comparator.nullsLast(Comparator.naturalOrder())).thenComparing(byId);
+            case CREATED_AT_DESC -> Comparator.comparing(Row::createdAt).thenComparing(byId).reversed();
+        };
+    }
+
+    // the same not-null and length limits the users table enforces
+    static void checkColumns(String name, String email, String message) {
+        if (name == null || email == null) {
+            throw new DaoException(message, new IllegalArgumentException("Name and email must not be null"));
+        }
+        if (name.length() > User.NAME_LENGTH || email.length() > User.EMAIL_LENGTH) {
+            throw new DaoException(message, new IllegalArgumentException(
+                    "Name must not exceed " + User.NAME_LENGTH + " and email " + User.EMAIL_LENGTH + " characters"));
+        }
+    }
+
+    private Stripe stripe(long id) {
+        return stripes[(int) (id ^ (id >>> 32)) & (stripes.length - 1)];
+    }
+
+    private static final class Stripe {
+        final StampedLock lock = new StampedLock();
+        final LongObjectMap<Row> rows;
+
+        Stripe(int expectedSize) {
+            rows = new LongObjectMap<>(expectedSize);
+        }
+    }
+
+    private record Row(long id, String name, String email, Integer age, LocalDateTime createdAt, long version) {
+
+        Row with(String newName, String newEmail, Integer newAge) {
+            return new Row(id, newName, newEmail, newAge, createdAt, version + 1);
+        }
+
+        boolean sameValues(String otherName, String otherEmail, Integer otherAge) {
+            return name.equals(otherName) && email.equals(otherEmail) && Objects.equals(age, otherAge);
+        }
+
+        User toUser() {
+            User user = new User(name, email, age);
+            user.setId(id);
+            user.setCreatedAt(createdAt);
+            user.setVersion(version);
+            return user;
+        }
+
+        UserSummary toSummary() {
+            return new UserSummary(id, name, email);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.userservice.dao;
+
+import java.util.function.Consumer;
+
+/**
+ * Open-addressing hash map keyed by primitive {@code long}: keys live in a {@code long[]} next to
+ * a parallel value array, so there is no {@code Long} boxing and no per-entry node object.
+ * Not thread-safe. {@link #get} never throws or loops forever on a table that is being modified
+ * concurrently, which lets callers read it under an optimistic lock and validate afterwards.
+ */
+final class LongObjectMap<V> {
+    private static final int MIN_CAPACITY = 16;
+
+    private Table table;
+    private int size;
+    // key 0 marks a free slot, so its value is stored separately
+    private boolean hasZeroKey;
+    private Object zeroValue;
+
+    LongObjectMap() {
+        this(MIN_CAPACITY);
+    }
+
+    LongObjectMap(int expectedSize) {
+        table = new Table(capacityFor(expectedSize));
+    }
+
+    int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        if (key == 0) {
+            return hasZeroKey ? (V) zeroValue : null;
+        }
+        Table t = table;
+        long[] keys = t.keys;
+        int mask = keys.length - 1;
+        int index = mix(key) & mask;
+        for (int probes = 0; probes < keys.length; probes++) {
+            long k = keys[index];
+            if (k == key) {
+                return (V) t.values[index];
+            }
+            if (k == 0) {
+                return null;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    /** Returns the previous value, or {@code null} if the key was absent. */
+    @SuppressWarnings("unchecked")
+    V put(long key, V value) {
+        if (key == 0) {
+            V previous = hasZeroKey ? (V) zeroValue : null;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return previous;
+        }
+        long[] keys = table.keys;
+        Object[] values = table.values;
+        int mask = keys.length - 1;
+        int index = mix(key) & mask;
+        while (keys[index] != 0) {
+            if (keys[index] == key) {
+                V previous = (V) values[index];
+                values[index] = value;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+        // value first: a concurrent optimistic reader that finds the key must not see a null value
+        values[index] = value;
+        keys[index] = key;
+        if (++size > keys.length * 3 / 4) {
+            resize(keys.length * 2);
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    V remove(long key) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                return null;
+            }
+            V previous = (V) zeroValue;
+            hasZeroKey = false;
+            zeroValue = null;
+            size--;
+            return previous;
+        }
+        long[] keys = table.keys;
+        Object[] values = table.values;
+        int mask = keys.length - 1;
+        int index = mix(key) & mask;
+        while (keys[index] != key) {
+            if (keys[index] == 0) {
+                return null;
+            }
+            index = (index + 1) & mask;
+        }
+        V previous = (V) values[index];
+        // backward-shift deletion keeps probe chains intact without tombstones
+        int free = index;
+        int next = (index + 1) & mask;
+        while (keys[next] != 0) {
+            int home = mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                keys[free] = keys[next];
+                values[free] = values[next];
+                free = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[free] = 0;
+        values[free] = null;
+        size--;
+        return previous;
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEachValue(Consumer<? super V> action) {
+        if (hasZeroKey) {
+            action.accept((V) zeroValue);
+        }
+        Table t = table;
+        for (int i = 0; i < t.keys.length; i++) {
+            if (t.keys[i] != 0) {
+                action.accept((V) t.values[i]);
+            }
+        }
+    }
+
+    void clear() {
+        table = new Table(MIN_CAPACITY);
+        hasZeroKey = false;
+        zeroValue = null;
+        size = 0;
+    }
+
+    private void resize(int capacity) {
+        Table old = table;
+        Table resized = new Table(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < old.keys.length; i++) {
+            long key = old.keys[i];
+            if (key != 0) {
+                int index = mix(key) & mask;
+                while (resized.keys[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                resized.keys[index] = key;
+                resized.values[index] = old.values[i];
+            }
+        }
+        // the old arrays stay untouched, so readers holding them still see a consistent table
+        table = resized;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 / 4 < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    // sequential ids would cluster under linear probing without scrambling
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    // keys and values are swapped together so a reader never pairs arrays of different sizes
+    private static final class Table {
+        final long[] keys;
+        final Object[] values;
+
+        Table(int capacity) {
+            keys = new long[capacity];
+            values = new Object[capacity];
+        }
+    }
+}
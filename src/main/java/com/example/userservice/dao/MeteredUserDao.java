@@ -0,0 +1,129 @@
+package com.example.userservice.dao;
+
+import com.example.userservice.model.User;
+import com.example.userservice.model.UserSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Records a latency histogram per UserDao operation ({@code userdao.operation})
+ * and counts failures by the exception thrown to the caller ({@code userdao.errors}), e.g.
+ * {@code DuplicateEmailException} or {@code ConcurrentUpdateException}.
+ */
+public class MeteredUserDao extends ForwardingUserDao {
+    private final MeterRegistry registry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public MeteredUserDao(UserDao delegate, MeterRegistry registry) {
+        super(delegate);
+        this.registry = registry;
+    }
+
+    @Override
+    public User create(User user) { return record("create", () -> delegate.create(user)); }
+
+    @Override
+    public List<User> createAll(Collection<User> users) { return record("createAll", () -> delegate.createAll(users)); }
+
+    @Override
+    public User upsertByEmail(User user) { return record("upsertByEmail", () -> delegate.upsertByEmail(user)); }
+
+    @Override
+    public List<User> upsertAll(Collection<User> users) { return record("upsertAll", () -> delegate.upsertAll(users)); }
+
+    @Override
+    public Optional<User> findById(Long id) { return record("findById", () -> delegate.findById(id)); }
+
+    @Override
+    public List<User> findAllById(Collection<Long> ids) { return record("findAllById", () -> delegate.findAllById(ids)); }
+
+    @Override
+    public Optional<User> findByEmail(String email) { return record("findByEmail", () -> delegate.findByEmail(email)); }
+
+    @Override
+    public boolean existsByEmail(String email) { return record("existsByEmail", () -> delegate.existsByEmail(email)); }
+
+    @Override
+    public List<User> findByEmails(Collection<String> emails) {
+        return record("findByEmails", () -> delegate.findByEmails(emails));
+    }
+
+    @Override
+    public List<User> findAll() { return record("findAll", delegate::findAll); }
+
+    @Override
+    public List<User> findPageAfter(Long lastId, int limit) {
+        return record("findPageAfter", () -> delegate.findPageAfter(lastId, limit));
+    }
+
+    @Override
+    public List<User> find(UserQuery query) { return record("find", () -> delegate.find(query)); }
+
+    @Override
+    public long count(UserQuery query) { return record("count", () -> delegate.count(query)); }
+
+    @Override
+    public List<UserSummary> findAllSummaries() { return record("findAllSummaries", delegate::findAllSummaries); }
+
+    @Override
+    public List<UserSummary> findSummaries(UserQuery query) {
+        return record("findSummaries", () -> delegate.findSummaries(query));
+    }
+
+    // only opening the cursor is timed; consumption happens in the caller
+    @Override
+    public Stream<User> streamAll() { return record("streamAll", delegate::streamAll); }
+
+    @Override
+    public User update(User user) { return record("update", () -> delegate.update(user)); }
+
+    @Override
+    public int updatePartial(Long id, String name, String email, Integer age) {
+        return record("updatePartial", () -> delegate.updatePartial(id, name, email, age));
+    }
+
+    @Override
+    public List<Long> updateAll(Collection<VersionedUpdate> updates) {
+        return record("updateAll", () -> delegate.updateAll(updates));
+    }
+
+    @Override
+    public int updateAgeWhere(int minAge, int maxAge, Integer newAge) {
+        return record("updateAgeWhere", () -> delegate.updateAgeWhere(minAge, maxAge, newAge));
+    }
+
+    @Override
+    public boolean deleteById(Long id) { return record("deleteById", () -> delegate.deleteById(id)); }
+
+    @Override
+    public int deleteAllById(Collection<Long> ids) { return record("deleteAllById", () -> delegate.deleteAllById(ids)); }
+
+    private <T> T record(String operation, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(registry);
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            registry.counter("userdao.errors", "operation", operation, "exception", e.getClass().getSimpleName()).increment();
+            throw e;
+        } finally {
+            sample.stop(timers.computeIfAbsent(operation, this::timer));
+        }
+    }
+
+    private Timer timer(String operation) {
+        return Timer.builder("userdao.operation")
+                .description("UserDao call latency")
+                .tag("operation", operation)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.userservice.dao;
+
+public record SingleFlightStats(long loads, long shared) {
+
+    /** Share of reads answered by another caller's query. */
+    public double sharedRate() {
+        long reads = loads + shared;
+        return reads == 0 ? 0.0 : (double) shared / reads;
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.userservice.dao;
+
+import com.example.userservice.model.User;
+import com.example.userservice.model.UserSummary;
+import com.example.userservice.util.ReadRouting;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Deduplicates identical reads that are in flight at the same time: the first caller for a key
+ * (operation plus arguments) queries the delegate, concurrent callers with the same key wait for
+ * that result instead of issuing the same SELECT. Nothing is kept once the call completes.
+ * <p>
+ * Every caller gets its own copies of returned users, so they can modify them as usual. Every write
+ * through this DAO detaches the reads in flight, so a read that starts after a write never joins
+ * a query that began before it. Callers that must read the primary ({@link ReadRouting#primaryRequired()})
+ * only share flights with each other.
+ */
+public class SingleFlightUserDao extends ForwardingUserDao {
+    private final ConcurrentHashMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder shared = new LongAdder();
+
+    public SingleFlightUserDao(UserDao delegate) {
+        super(delegate);
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return share(new Key("findById", id), () -> delegate.findById(id), found -> found.map(SingleFlightUserDao::copy));
+    }
+
+    @Override
+    public List<User> findAllById(Collection<Long> ids) {
+        return share(new Key("findAllById", List.copyOf(ids)), () -> delegate.findAllById(ids), SingleFlightUserDao::copyAll);
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return share(new Key("findByEmail", email), () -> delegate.findByEmail(email),
+                found -> found.map(SingleFlightUserDao::copy));
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return share(new Key("existsByEmail", email), () -> delegate.existsByEmail(email), UnaryOperator.identity());
+    }
+
+    @Override
+    public List<User> findByEmails(Collection<String> emails) {
+        return share(new Key("findByEmails", List.copyOf(emails)), () -> delegate.findByEmails(emails),
+                SingleFlightUserDao::copyAll);
+    }
+
+    @Override
+    public List<User> findAll() {
+        return share(new Key("findAll", null), delegate::findAll, SingleFlightUserDao::copyAll);
+    }
+
+    @Override
+    public List<User> findPageAfter(Long lastId, int limit) {
+        return share(new Key("findPageAfter", Arrays.asList(lastId, limit)),
+                () -> delegate.findPageAfter(lastId, limit), SingleFlightUserDao::copyAll);
+    }
+
+    @Override
+    public List<User> find(UserQuery query) {
+        return share(new Key("find", query), () -> delegate.find(query), SingleFlightUserDao::copyAll);
+    }
+
+    @Override
+    public long count(UserQuery query) {
+        return share(new Key("count", query), () -> delegate.count(query), UnaryOperator.identity());
+    }
+
+    @Override
+    public List<UserSummary> findAllSummaries() {
+        return share(new Key("findAllSummaries", null), delegate::findAllSummaries, UnaryOperator.identity());
+    }
+
+    @Override
+    public List<UserSummary> findSummaries(UserQuery query) {
+        return share(new Key("findSummaries", query), () -> delegate.findSummaries(query), UnaryOperator.identity());
+    }
+
+    @Override
+    public User create(User user) {
+        try {
+            return delegate.create(user);
+        } finally {
+            detach();
+        }
+    }
+
+    @Override
+    public List<User> createAll(Collection<User> users) {
+        try {
+            return delegate.createAll(users);
+        } finally {
+            detach();
+        }
+    }
+
+    @Override
+    public User upsertByEmail(User user) {
+        try {
+            return delegate.upsertByEmail(user);
+        } finally {
+            detach();
+        }
+    }
+
+    @Override
+    public List<User> upsertAll(Collection<User> users) {
+        try {
+            return delegate.upsertAll(users);
+        } finally {
+            detach();
+        }
+    }
+
+    @Override
+    public User update(User user) {
+        try {
+            return delegate.update(user);
+        } finally {
+            detach();
+        }
+    }
+
+    @Override
+    public int updatePartial(Long id, String name, String email, Integer age) {
+        try {
+            return delegate.updatePartial(id, name, email, age);
+        } finally {
+            detach();
+        }
+    }
+
+    @Override
+    public List<Long> updateAll(Collection<VersionedUpdate> updates) {
+        try {
+            return delegate.updateAll(updates);
+        } finally {
+            detach();
+        }
+    }
+
+    @Override
+    public int updateAgeWhere(int minAge, int maxAge, Integer newAge) {
+        try {
+            return delegate.updateAgeWhere(minAge, maxAge, newAge);
+        } finally {
+            detach();
+        }
+    }
+
+    @Override
+    public boolean deleteById(Long id) {
+        try {
+            return delegate.deleteById(id);
+        } finally {
+            detach();
+        }
+    }
+
+    @Override
+    public int deleteAllById(Collection<Long> ids) {
+        try {
+            return delegate.deleteAllById(ids);
+        } finally {
+            detach();
+        }
+    }
+
+    /** Reads that went to the delegate and reads that waited for another caller's result. */
+    public SingleFlightStats stats() {
+        return new SingleFlightStats(loads.sum(), shared.sum());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T share(Key key, Supplier<T> load, UnaryOperator<T> copy) {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            shared.increment();
+            try {
+                return copy.apply((T) running.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        loads.increment();
+        T value;
+        try {
+            value = load.get();
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        // removed before completion, so a caller arriving later never gets an already finished result
+        inFlight.remove(key, flight);
+        flight.complete(value);
+        // the loaded value stays read-only, so waiters never copy it while a caller changes it
+        return copy.apply(value);
+    }
+
+    // flights keep running for the callers already waiting on them, but new callers start their own
+    private void detach() {
+        inFlight.clear();
+    }
+
+    private static List<User> copyAll(List<User> users) {
+        return users.stream().map(SingleFlightUserDao::copy).toList();
+    }
+
+    private static User copy(User user) {
+        User copy = new User(user.getName(), user.getEmail(), user.getAge());
+        copy.setId(user.getId());
+        copy.setCreatedAt(user.getCreatedAt());
+        copy.setVersion(user.getVersion());
+        return copy;
+    }
+
+    // a caller that must read the primary never joins a flight that may have gone to a replica
+    private record Key(String operation, Object arguments, boolean primary) {
+        Key(String operation, Object arguments) {
+            this(operation, arguments, ReadRouting.primaryRequired());
+        }
+    }
+}
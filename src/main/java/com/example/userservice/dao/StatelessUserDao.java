@@ -0,0 +1,265 @@
+package com.example.userservice.dao;
+
+import com.example.userservice.exception.ConcurrentUpdateException;
+import com.example.userservice.exception.DaoException;
+import com.example.userservice.exception.DuplicateEmailException;
+import com.example.userservice.model.User;
+import com.example.userservice.util.HibernateUtil;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Write-optimized UserDao for bulk loads: inserts, merges and updates go through a
+ * {@link StatelessSession} with explicit JDBC batching, so there is no persistence context
+ * and no dirty checking. With {@code copy} enabled, {@link #createAll} streams rows through
+ * PostgreSQL {@code COPY} instead. Reads and deletes are delegated.
+ */
+public class StatelessUserDao extends ForwardingUserDao {
+    private static final Logger log = LoggerFactory.getLogger(StatelessUserDao.class);
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    private static final int CHUNK_SIZE = 10_000;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final String COPY_SQL =
+            "COPY users (id, name, email, age, created_at, version) FROM STDIN WITH (FORMAT csv)";
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private final int batchSize;
+    private final boolean copy;
+
+    public StatelessUserDao(UserDao delegate) {
+        this(delegate, DEFAULT_BATCH_SIZE, false);
+    }
+
+    public StatelessUserDao(UserDao delegate, int batchSize, boolean copy) {
+        super(delegate);
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.batchSize = batchSize;
+        this.copy = copy;
+    }
+
+    @Override
+    public User create(User user) {
+        Transaction tx = null;
+        try (StatelessSession session = openSession()) {
+            tx = session.beginTransaction();
+            session.insert(user);
+            UserDaoHibernate.commitWrite(tx);
+            return user;
+        } catch (Exception e) {
+            UserDaoHibernate.rollbackQuietly(tx);
+            throw translate("Failed to create user", user.getEmail(), e);
+        }
+    }
+
+    /**
+     * Inserts in transactions of 10 000 rows; chunks committed before a failure stay committed.
+     */
+    @Override
+    public List<User> createAll(Collection<User> users) {
+        if (copy) {
+            copyAll(users.iterator());
+            return List.copyOf(users);
+        }
+        return insertAll(users.iterator());
+    }
+
+    private List<User> insertAll(Iterator<User> users) {
+        List<User> created = new ArrayList<>();
+        while (users.hasNext()) {
+            List<User> chunk = nextChunk(users);
+            write(chunk, StatelessSession::insert, "insert");
+            created.addAll(chunk);
+        }
+        return created;
+    }
+
+    /**
+     * Inserts users without an id and overwrites rows with a matching id (SQL MERGE), in batches.
+     * Returns the number of users written.
+     */
+    public int mergeAll(Collection<User> users) {
+        Iterator<User> iterator = users.iterator();
+        int written = 0;
+        while (iterator.hasNext()) {
+            List<User> chunk = nextChunk(iterator);
+            write(chunk, (session, user) -> {
+                if (user.getId() == null) {
+                    session.insert(user);
+                } else {
+                    session.upsert(user);
+                }
+            }, "upsert");
+            written += chunk.size();
+        }
+        return written;
+    }
+
+    @Override
+    public User update(User user) {
+        write(List.of(user), StatelessSession::update, "update");
+        return user;
+    }
+
+    /**
+     * Loads users with PostgreSQL {@code COPY ... FROM STDIN}, one transaction per 10 000 rows.
+     * Ids, the creation time and version 0 are set on the passed users. On other databases this
+     * falls back to batched stateless inserts. Returns the number of rows copied.
+     */
+    public long copyAll(Iterator<User> users) {
+        if (!UserDaoHibernate.isPostgreSql(HibernateUtil.getSessionFactory())) {
+            log.warn("COPY needs PostgreSQL, falling back to batched inserts");
+            return insertAll(users).size();
+        }
+        long copied = 0;
+        while (users.hasNext()) {
+            List<User> chunk = nextChunk(users);
+            Transaction tx = null;
+            try (StatelessSession session = openSession()) {
+                tx = session.beginTransaction();
+                long[] ids = generateIds(session, chunk);
+                session.doWork(connection -> copyChunk(connection, chunk, ids));
+                UserDaoHibernate.commitWrite(tx);
+                copied += chunk.size();
+            } catch (Exception e) {
+                UserDaoHibernate.rollbackQuietly(tx);
+                throw translate("Failed to copy users; " + copied + " users were copied before the failing chunk",
+                        null, e);
+            }
+        }
+        log.info("Copied {} users", copied);
+        return copied;
+    }
+
+    // The entity's own pooled generator shares its optimizer state with Hibernate inserts in this process.
+    // Reserving blocks with a separate nextval query cannot: Hibernate claims everything up to its second
+    // value when its first one is the sequence's initial value, which overlaps blocks reserved in between.
+    private static long[] generateIds(StatelessSession session, List<User> chunk) {
+        SharedSessionContractImplementor sessionImpl = (SharedSessionContractImplementor) session;
+        IdentifierGenerator generator = (IdentifierGenerator) sessionImpl.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(User.class).getGenerator();
+        long[] ids = new long[chunk.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = (Long) generator.generate(sessionImpl, chunk.get(i));
+        }
+        return ids;
+    }
+
+    private static void copyChunk(Connection connection, List<User> chunk, long[] ids) throws SQLException {
+        // timestamp(6) keeps microseconds, so the returned users carry exactly what the table stores
+        LocalDateTime createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+        try {
+            StringBuilder buffer = new StringBuilder(COPY_BUFFER_SIZE + 512);
+            for (int i = 0; i < chunk.size(); i++) {
+                User user = chunk.get(i);
+                user.setId(ids[i]);
+                user.setCreatedAt(createdAt);
+                user.setVersion(0);
+                buffer.append(ids[i]).append(',');
+                appendCsv(buffer, user.getName()).append(',');
+                appendCsv(buffer, user.getEmail()).append(',');
+                if (user.getAge() != null) {
+                    buffer.append(user.getAge());
+                }
+                buffer.append(',').append(createdAt).append(",0\n");
+                if (buffer.length() >= COPY_BUFFER_SIZE) {
+                    writeToCopy(copyIn, buffer);
+                }
+            }
+            writeToCopy(copyIn, buffer);
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private void write(List<User> chunk, Writer writer, String operation) {
+        Transaction tx = null;
+        try (StatelessSession session = openSession()) {
+            tx = session.beginTransaction();
+            for (User user : chunk) {
+                writer.write(session, user);
+            }
+            UserDaoHibernate.commitWrite(tx);
+            log.info("Stateless {} of {} users", operation, chunk.size());
+        } catch (Exception e) {
+            UserDaoHibernate.rollbackQuietly(tx);
+            throw translate("Failed to " + operation + " " + chunk.size() + " users",
+                    chunk.size() == 1 ? chunk.get(0).getEmail() : null, e);
+        }
+    }
+
+    private StatelessSession openSession() {
+        StatelessSession session = HibernateUtil.getSessionFactory().openStatelessSession();
+        session.setJdbcBatchSize(batchSize);
+        return session;
+    }
+
+    private List<User> nextChunk(Iterator<User> iterator) {
+        List<User> chunk = new ArrayList<>(CHUNK_SIZE);
+        while (iterator.hasNext() && chunk.size() < CHUNK_SIZE) {
+            chunk.add(iterator.next());
+        }
+        return chunk;
+    }
+
+    private static DaoException translate(String message, String email, Exception e) {
+        if (e instanceof DaoException dao) {
+            return dao;
+        }
+        if (UserDaoHibernate.isOptimisticLockFailure(e)) {
+            return new ConcurrentUpdateException(message + ": modified concurrently", e);
+        }
+        if (UserDaoHibernate.isConstraintViolation(e) || isUniqueViolation(e)) {
+            return new DuplicateEmailException(email == null ? "Email must be unique" : "Email must be unique: " + email, e);
+        }
+        return new DaoException(message, e);
+    }
+
+    private static boolean isUniqueViolation(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sql && UNIQUE_VIOLATION.equals(sql.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static StringBuilder appendCsv(StringBuilder buffer, String value) {
+        if (value == null) {
+            return buffer;
+        }
+        return buffer.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    private static void writeToCopy(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    @FunctionalInterface
+    private interface Writer {
+        void write(StatelessSession session, User user);
+    }
+}
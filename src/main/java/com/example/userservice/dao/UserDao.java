@@ -1,14 +1,94 @@
 package com.example.userservice.dao;
 
 import com.example.userservice.model.User;
+import com.example.userservice.model.UserSummary;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface UserDao {
     User create(User user);
+
+    /**
+     * Inserts users in chunked transactions using JDBC batching.
+     * Chunks committed before a failure stay committed.
+     */
+    List<User> createAll(Collection<User> users);
+
+    /**
+     * Inserts the user or, if the email is taken, overwrites name and age of that row in one statement.
+     * Returns the user with the id of the inserted or updated row.
+     */
+    User upsertByEmail(User user);
+
+    /**
+     * Batched {@link #upsertByEmail}: one statement per chunk of 1000 rows. When an email repeats,
+     * the last occurrence wins and every occurrence gets the same id. Returns the users in input order.
+     */
+    List<User> upsertAll(Collection<User> users);
+
     Optional<User> findById(Long id);
+
+    /**
+     * Loads many users in batched round trips, in input order; unknown ids are skipped.
+     */
+    List<User> findAllById(Collection<Long> ids);
+
+    Optional<User> findByEmail(String email);
+    boolean existsByEmail(String email);
+
+    /**
+     * Resolves many emails in one round trip, in input order; unknown emails are skipped.
+     */
+    List<User> findByEmails(Collection<String> emails);
+
     List<User> findAll();
+    List<User> findPageAfter(Long lastId, int limit);
+
+    /**
+     * Returns at most {@code query.limit()} users matching every set criterion, in the requested order.
+     */
+    List<User> find(UserQuery query);
+
+    /**
+     * Counts users matching the criteria of {@code query}; sort and limit are ignored.
+     */
+    long count(UserQuery query);
+
+    /**
+     * Projection of all users ordered by id: selects only id, name and email and creates no managed entities.
+     */
+    List<UserSummary> findAllSummaries();
+
+    /**
+     * Projection counterpart of {@link #find(UserQuery)}.
+     */
+    List<UserSummary> findSummaries(UserQuery query);
+
+    /**
+     * Streams all users ordered by id over a server-side cursor.
+     * The stream holds an open Session and must be closed by the caller.
+     */
+    Stream<User> streamAll();
+
     User update(User user);
+
+    /**
+     * Updates only the non-null fields in a single UPDATE statement.
+     * Returns the number of affected rows; when every field is null nothing is written and the result is 1 if the
+     * user exists, 0 otherwise.
+     */
+    int updatePartial(Long id, String name, String email, Integer age);
+
+    /**
+     * Writes many users in JDBC batches, one transaction per chunk of 1000. A row is only written if its
+     * stored version is still the expected one, and then takes the new version, which may skip ahead.
+     * Returns the ids that were skipped because their row was changed or deleted in the meantime.
+     */
+    List<Long> updateAll(Collection<VersionedUpdate> updates);
+
+    int updateAgeWhere(int minAge, int maxAge, Integer newAge);
     boolean deleteById(Long id);
+    int deleteAllById(Collection<Long> ids);
 }
-
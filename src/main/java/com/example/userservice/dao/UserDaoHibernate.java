@@ -1,19 +1,83 @@
 package com.example.userservice.dao;
 
+import com.example.userservice.exception.ConcurrentUpdateException;
 import com.example.userservice.exception.DaoException;
+import com.example.userservice.exception.DuplicateEmailException;
 import com.example.userservice.model.User;
+import com.example.userservice.model.UserSummary;
 import com.example.userservice.util.HibernateUtil;
+import com.example.userservice.util.PartitionManager;
+import com.example.userservice.util.ReadRouting;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StaleStateException;
+import org.hibernate.StatelessSession;
 import org.hibernate.Transaction;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
 import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.query.MutationQuery;
+import org.hibernate.query.Query;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class UserDaoHibernate implements UserDao {
     private static final Logger log = LoggerFactory.getLogger(UserDaoHibernate.class);
+    private static final int STREAM_FETCH_SIZE = 500;
+    private static final int INSERT_CHUNK_SIZE = 1000;
+    private static final int DELETE_CHUNK_SIZE = 1000;
+    private static final String JDBC_BATCH_SIZE = "hibernate.jdbc.batch_size";
+    public static final int DEFAULT_MULTI_LOAD_BATCH_SIZE = 100;
+
+    private final int multiLoadBatchSize;
+    private volatile CriteriaPlans criteriaPlans;
+
+    public UserDaoHibernate() {
+        this(DEFAULT_MULTI_LOAD_BATCH_SIZE);
+    }
+
+    public UserDaoHibernate(int multiLoadBatchSize) {
+        if (multiLoadBatchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.multiLoadBatchSize = multiLoadBatchSize;
+    }
 
     @Override
     public User create(User user) {
@@ -21,12 +85,12 @@ public class UserDaoHibernate implements UserDao {
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
             tx = session.beginTransaction();
             session.persist(user);
-            tx.commit();
+            commitWrite(tx);
             log.info("Created user id={}", user.getId());
             return user;
         } catch (ConstraintViolationException e) {
             rollbackQuietly(tx);
-            throw new DaoException("Email must be unique: " + user.getEmail(), e);
+            throw new DuplicateEmailException("Email must be unique: " + user.getEmail(), e);
         } catch (Exception e) {
             rollbackQuietly(tx);
             throw new DaoException("Failed to create user", e);
@@ -34,63 +98,682 @@ public class UserDaoHibernate implements UserDao {
     }
 
     @Override
-    public Optional<User> findById(Long id) {
+    public List<User> createAll(Collection<User> users) {
+        List<User> created = new ArrayList<>(users.size());
+        Iterator<User> iterator = users.iterator();
+        while (iterator.hasNext()) {
+            createChunk(iterator, created);
+        }
+        return created;
+    }
+
+    private void createChunk(Iterator<User> iterator, List<User> created) {
+        List<User> chunk = new ArrayList<>(INSERT_CHUNK_SIZE);
+        Transaction tx = null;
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            int batchSize = jdbcBatchSize(session);
+            tx = session.beginTransaction();
+            while (iterator.hasNext() && chunk.size() < INSERT_CHUNK_SIZE) {
+                User user = iterator.next();
+                session.persist(user);
+                chunk.add(user);
+                if (chunk.size() % batchSize == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+            commitWrite(tx);
+            created.addAll(chunk);
+            log.info("Created {} users in batch", chunk.size());
+        } catch (Exception e) {
+            rollbackQuietly(tx);
+            if (isConstraintViolation(e)) {
+                throw new DuplicateEmailException("Email must be unique; " + created.size()
+                        + " users were created before the failing chunk", e);
+            }
+            throw new DaoException("Failed to create users; " + created.size()
+                    + " users were created before the failing chunk", e);
+        }
+    }
+
+    @Override
+    public User upsertByEmail(User user) {
+        return upsertAll(List.of(user)).get(0);
+    }
+
+    @Override
+    public List<User> upsertAll(Collection<User> users) {
+        List<User> upserted = new ArrayList<>(users.size());
+        Iterator<User> iterator = users.iterator();
+        while (iterator.hasNext()) {
+            List<User> chunk = new ArrayList<>(INSERT_CHUNK_SIZE);
+            while (iterator.hasNext() && chunk.size() < INSERT_CHUNK_SIZE) {
+                chunk.add(iterator.next());
+            }
+            upsertChunk(chunk);
+            upserted.addAll(chunk);
+        }
+        return upserted;
+    }
+
+    // ON CONFLICT cannot touch the same row twice in one statement, so the last row per email wins
+    private void upsertChunk(List<User> chunk) {
+        Map<String, User> byEmail = new LinkedHashMap<>();
+        chunk.forEach(user -> byEmail.put(user.getEmail(), user));
+        Transaction tx = null;
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            tx = session.beginTransaction();
+            // a partitioned users table has no unique index on email for ON CONFLICT to use
+            Map<String, Long> ids = isPostgreSql(session.getSessionFactory()) && !PartitionManager.enabled()
+                    ? upsertOnConflict(session, byEmail.values())
+                    : upsertByNaturalId(session, byEmail.values());
+            commitWrite(tx);
+            chunk.forEach(user -> user.setId(ids.get(user.getEmail())));
+            log.info("Upserted {} users by email", byEmail.size());
+        } catch (Exception e) {
+            rollbackQuietly(tx);
+            throw new DaoException("Failed to upsert " + chunk.size() + " users by email", e);
+        }
+    }
+
+    private static Map<String, Long> upsertOnConflict(Session session, Collection<User> users) {
+        // ids come from the entity's pooled generator so they never collide with ids Hibernate hands out
+        SharedSessionContractImplementor sessionImpl = session.unwrap(SharedSessionContractImplementor.class);
+        IdentifierGenerator generator = (IdentifierGenerator) sessionImpl.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(User.class).getGenerator();
+        List<Long> newIds = new ArrayList<>(users.size());
+        users.forEach(user -> newIds.add((Long) generator.generate(sessionImpl, user)));
+
+        StringBuilder sql = new StringBuilder("insert into users (id, name, email, age, created_at, version) values ");
+        for (int i = 0; i < users.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, localtimestamp, 0)");
+        }
+        sql.append(" on conflict (email) do update set name = excluded.name, age = excluded.age,")
+                .append(" version = users.version + 1 returning id, email");
+        return session.doReturningWork(connection -> {
+            Map<String, Long> ids = new HashMap<>();
+            try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+                int index = 0;
+                int row = 0;
+                for (User user : users) {
+                    statement.setLong(++index, newIds.get(row++));
+                    statement.setString(++index, user.getName());
+                    statement.setString(++index, user.getEmail());
+                    statement.setObject(++index, user.getAge(), Types.INTEGER);
+                }
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        ids.put(rs.getString(2), rs.getLong(1));
+                    }
+                }
+            }
+            return ids;
+        });
+    }
+
+    // fallback where ON CONFLICT is unavailable; not atomic against concurrent inserts
+    private static Map<String, Long> upsertByNaturalId(Session session, Collection<User> users) {
+        Map<String, Long> ids = new HashMap<>();
+        for (User user : users) {
+            User existing = session.bySimpleNaturalId(User.class).load(user.getEmail());
+            if (existing == null) {
+                User created = new User(user.getName(), user.getEmail(), user.getAge());
+                session.persist(created);
+                existing = created;
+            } else {
+                existing.setName(user.getName());
+                existing.setAge(user.getAge());
+            }
+            ids.put(user.getEmail(), existing.getId());
+        }
+        return ids;
+    }
+
+    // the session-level override wins; otherwise hibernate.jdbc.batch_size from the configuration
+    private static int jdbcBatchSize(Session session) {
+        Integer size = session.getJdbcBatchSize();
+        if (size == null) {
+            Object configured = session.getSessionFactory().getProperties().get(JDBC_BATCH_SIZE);
+            size = configured == null ? 1 : Integer.parseInt(configured.toString().trim());
+        }
+        return Math.max(1, size);
+    }
+
+    static boolean isPostgreSql(SessionFactory sessionFactory) {
+        return sessionFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        try (ReadRouting.Scope ignored = ReadRouting.replica(); Session session = openReadSession()) {
             return Optional.ofNullable(session.get(User.class, id));
         } catch (Exception e) {
             throw new DaoException("Failed to read user by id=" + id, e);
         }
     }
 
+    @Override
+    public List<User> findAllById(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        try (ReadRouting.Scope ignored = ReadRouting.replica(); Session session = openReadSession()) {
+            return session.byMultipleIds(User.class)
+                    .withBatchSize(multiLoadBatchSize)
+                    .enableOrderedReturn(true)
+                    .multiLoad(List.copyOf(new LinkedHashSet<>(ids)))
+                    .stream()
+                    .filter(Objects::nonNull)
+                    .toList();
+        } catch (Exception e) {
+            throw new DaoException("Failed to read users by ids", e);
+        }
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        try (ReadRouting.Scope ignored = ReadRouting.replica(); Session session = openReadSession()) {
+            return session.bySimpleNaturalId(User.class).loadOptional(email);
+        } catch (Exception e) {
+            throw new DaoException("Failed to read user by email=" + email, e);
+        }
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        try (ReadRouting.Scope ignored = ReadRouting.replica(); Session session = openReadSession()) {
+            return session.createQuery("select u.id from User u where u.email = :email", Long.class)
+                    .setParameter("email", email)
+                    .setMaxResults(1)
+                    .uniqueResultOptional()
+                    .isPresent();
+        } catch (Exception e) {
+            throw new DaoException("Failed to check user by email=" + email, e);
+        }
+    }
+
+    @Override
+    public List<User> findByEmails(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return List.of();
+        }
+        try (ReadRouting.Scope ignored = ReadRouting.replica(); Session session = openReadSession()) {
+            Map<String, User> byEmail = new HashMap<>();
+            session.byMultipleNaturalId(User.class)
+                    .withBatchSize(multiLoadBatchSize)
+                    .enableOrderedReturn(false)
+                    .multiLoad(List.copyOf(emails))
+                    .stream()
+                    .filter(Objects::nonNull)
+                    .forEach(user -> byEmail.put(user.getEmail(), user));
+            return emails.stream()
+                    .distinct()
+                    .map(byEmail::get)
+                    .filter(Objects::nonNull)
+                    .toList();
+        } catch (Exception e) {
+            throw new DaoException("Failed to read users by emails", e);
+        }
+    }
+
     @Override
     public List<User> findAll() {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        try (ReadRouting.Scope ignored = ReadRouting.replica(); Session session = openReadSession()) {
             return session.createQuery("from User", User.class).list();
         } catch (Exception e) {
             throw new DaoException("Failed to read all users", e);
         }
     }
 
+    @Override
+    public List<User> findPageAfter(Long lastId, int limit) {
+        try (ReadRouting.Scope ignored = ReadRouting.replica(); Session session = openReadSession()) {
+            return session.createQuery("from User u where u.id > :lastId order by u.id", User.class)
+                    .setParameter("lastId", lastId == null ? 0L : lastId)
+                    .setMaxResults(limit)
+                    .setReadOnly(true)
+                    .list();
+        } catch (Exception e) {
+            throw new DaoException("Failed to read users after id=" + lastId, e);
+        }
+    }
+
+    @Override
+    public List<User> find(UserQuery query) {
+        QueryShape shape = QueryShape.of(query);
+        try (ReadRouting.Scope ignored = ReadRouting.replica(); Session session = openReadSession()) {
+            CriteriaQuery<User> criteria = criteriaPlans(session.getSessionFactory()).find
+                    .computeIfAbsent(shape, key -> buildFind(session.getCriteriaBuilder(), key, User.class, root -> root));
+            return bind(session.createQuery(criteria), query)
+                    .setMaxResults(query.limit())
+                    .list();
+        } catch (Exception e) {
+            throw new DaoException("Failed to search users by " + query, e);
+        }
+    }
+
+    @Override
+    public long count(UserQuery query) {
+        QueryShape shape = QueryShape.of(query).unsorted();
+        try (ReadRouting.Scope ignored = ReadRouting.replica(); Session session = openReadSession()) {
+            CriteriaQuery<Long> criteria = criteriaPlans(session.getSessionFactory()).count
+                    .computeIfAbsent(shape, key -> buildCount(session.getCriteriaBuilder(), key));
+            return bind(session.createQuery(criteria), query).getSingleResult();
+        } catch (Exception e) {
+            throw new DaoException("Failed to count users by " + query, e);
+        }
+    }
+
+    @Override
+    public List<UserSummary> findAllSummaries() {
+        try (ReadRouting.Scope ignored = ReadRouting.replica(); StatelessSession session = openStatelessSession()) {
+            return session.createSelectionQuery("select u.id, u.name, u.email from User u order by u.id", UserSummary.class)
+                    .list();
+        } catch (Exception e) {
+            throw new DaoException("Failed to read user summaries", e);
+        }
+    }
+
+    @Override
+    public List<UserSummary> findSummaries(UserQuery query) {
+        QueryShape shape = QueryShape.of(query);
+        try (ReadRouting.Scope ignored = ReadRouting.replica(); StatelessSession session = openStatelessSession()) {
+            CriteriaBuilder cb = session.getCriteriaBuilder();
+            CriteriaQuery<UserSummary> criteria = criteriaPlans(session.getFactory()).summaries
+                    .computeIfAbsent(shape, key -> buildFind(cb, key, UserSummary.class,
+                            root -> cb.construct(UserSummary.class, root.get("id"), root.get("name"), root.get("email"))));
+            return bind(session.createQuery(criteria), query)
+                    .setMaxResults(query.limit())
+                    .list();
+        } catch (Exception e) {
+            throw new DaoException("Failed to search user summaries by " + query, e);
+        }
+    }
+
+    @Override
+    public Stream<User> streamAll() {
+        Session session;
+        try {
+            session = openReadSession();
+        } catch (Exception e) {
+            throw new DaoException("Failed to stream users", e);
+        }
+        Transaction tx = null;
+        try {
+            // the PostgreSQL driver only honours the fetch size outside of auto-commit
+            try (ReadRouting.Scope ignored = ReadRouting.replica()) {
+                tx = session.beginTransaction();
+            }
+            ScrollableResults<User> results = session.createQuery("from User u order by u.id", User.class)
+                    .setFetchSize(STREAM_FETCH_SIZE)
+                    .setReadOnly(true)
+                    .scroll(ScrollMode.FORWARD_ONLY);
+            Transaction streamTx = tx;
+            return StreamSupport.stream(new ClearingSpliterator(session, results), false)
+                    .onClose(() -> {
+                        try {
+                            results.close();
+                            streamTx.commit();
+                        } catch (Exception e) {
+                            rollbackQuietly(streamTx);
+                        } finally {
+                            session.close();
+                        }
+                    });
+        } catch (Exception e) {
+            rollbackQuietly(tx);
+            session.close();
+            throw new DaoException("Failed to stream users", e);
+        }
+    }
+
     @Override
     public User update(User user) {
         Transaction tx = null;
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
             tx = session.beginTransaction();
-            session.merge(user);
-            tx.commit();
-            log.info("Updated user id={}", user.getId());
-            return user;
+            User merged = session.merge(user);
+            commitWrite(tx);
+            log.info("Updated user id={} to version {}", merged.getId(), merged.getVersion());
+            return merged;
         } catch (ConstraintViolationException e) {
             rollbackQuietly(tx);
-            throw new DaoException("Email must be unique: " + user.getEmail(), e);
+            throw new DuplicateEmailException("Email must be unique: " + user.getEmail(), e);
         } catch (Exception e) {
             rollbackQuietly(tx);
+            if (isOptimisticLockFailure(e)) {
+                throw new ConcurrentUpdateException("User id=" + user.getId()
+                        + " was modified concurrently (version " + user.getVersion() + ")", e);
+            }
             throw new DaoException("Failed to update user id=" + user.getId(), e);
         }
     }
 
+    @Override
+    public int updatePartial(Long id, String name, String email, Integer age) {
+        StringBuilder hql = new StringBuilder("update versioned User u set ");
+        List<String> assignments = new ArrayList<>();
+        if (name != null) assignments.add("u.name = :name");
+        if (email != null) assignments.add("u.email = :email");
+        if (age != null) assignments.add("u.age = :age");
+        if (assignments.isEmpty()) {
+            return countById(id);
+        }
+        hql.append(String.join(", ", assignments)).append(" where u.id = :id");
+        Transaction tx = null;
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            tx = session.beginTransaction();
+            MutationQuery query = session.createMutationQuery(hql.toString()).setParameter("id", id);
+            if (name != null) query.setParameter("name", name);
+            if (email != null) query.setParameter("email", email);
+            if (age != null) query.setParameter("age", age);
+            int updated = query.executeUpdate();
+            commitWrite(tx);
+            log.info("Partially updated user id={}, rows={}", id, updated);
+            return updated;
+        } catch (Exception e) {
+            rollbackQuietly(tx);
+            if (isConstraintViolation(e)) {
+                throw new DuplicateEmailException("Email must be unique: " + email, e);
+            }
+            throw new DaoException("Failed to update user id=" + id, e);
+        }
+    }
+
+    // an empty patch changes nothing but still reports whether the row exists, read from the primary like an update
+    private int countById(Long id) {
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            return session.createQuery("select u.id from User u where u.id = :id", Long.class)
+                    .setParameter("id", id)
+                    .uniqueResultOptional()
+                    .isPresent() ? 1 : 0;
+        } catch (Exception e) {
+            throw new DaoException("Failed to update user id=" + id, e);
+        }
+    }
+
+    @Override
+    public List<Long> updateAll(Collection<VersionedUpdate> updates) {
+        List<Long> skipped = new ArrayList<>();
+        int written = 0;
+        Iterator<VersionedUpdate> iterator = updates.iterator();
+        while (iterator.hasNext()) {
+            List<VersionedUpdate> chunk = new ArrayList<>(INSERT_CHUNK_SIZE);
+            while (iterator.hasNext() && chunk.size() < INSERT_CHUNK_SIZE) {
+                chunk.add(iterator.next());
+            }
+            Transaction tx = null;
+            try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+                tx = session.beginTransaction();
+                List<Long> stale = session.doReturningWork(connection -> updateChunk(connection, chunk));
+                commitWrite(tx);
+                skipped.addAll(stale);
+                written += chunk.size() - stale.size();
+            } catch (Exception e) {
+                rollbackQuietly(tx);
+                if (isConstraintViolation(e)) {
+                    throw new DuplicateEmailException("Email must be unique; " + written
+                            + " users were updated before the failing chunk", e);
+                }
+                throw new DaoException("Failed to update users; " + written
+                        + " users were updated before the failing chunk", e);
+            }
+        }
+        log.info("Batch updated {} users, skipped {} changed concurrently", written, skipped.size());
+        return skipped;
+    }
+
+    // plain JDBC batch: Hibernate's versioned update can only increment the version by one
+    private static List<Long> updateChunk(Connection connection, List<VersionedUpdate> chunk) throws SQLException {
+        List<Long> stale = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "update users set name = ?, email = ?, age = ?, version = ? where id = ? and version = ?")) {
+            for (VersionedUpdate update : chunk) {
+                User user = update.user();
+                statement.setString(1, user.getName());
+                statement.setString(2, user.getEmail());
+                statement.setObject(3, user.getAge(), Types.INTEGER);
+                statement.setLong(4, user.getVersion());
+                statement.setLong(5, user.getId());
+                statement.setLong(6, update.expectedVersion());
+                statement.addBatch();
+            }
+            int[] counts = statement.executeBatch();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    stale.add(chunk.get(i).user().getId());
+                }
+            }
+        }
+        return stale;
+    }
+
+    @Override
+    public int updateAgeWhere(int minAge, int maxAge, Integer newAge) {
+        Transaction tx = null;
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            tx = session.beginTransaction();
+            int updated = session.createMutationQuery(
+                            "update versioned User u set u.age = :newAge where u.age between :minAge and :maxAge")
+                    .setParameter("newAge", newAge)
+                    .setParameter("minAge", minAge)
+                    .setParameter("maxAge", maxAge)
+                    .executeUpdate();
+            commitWrite(tx);
+            log.info("Updated age of {} users aged {}..{}", updated, minAge, maxAge);
+            return updated;
+        } catch (Exception e) {
+            rollbackQuietly(tx);
+            throw new DaoException("Failed to update age of users aged " + minAge + ".." + maxAge, e);
+        }
+    }
+
     @Override
     public boolean deleteById(Long id) {
         Transaction tx = null;
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
             tx = session.beginTransaction();
-            User managed = session.get(User.class, id);
-            if (managed == null) {
-                tx.rollback();
-                return false;
-            }
-            session.remove(managed);
-            tx.commit();
-            log.info("Deleted user id={}", id);
-            return true;
+            int deleted = session.createMutationQuery("delete from User u where u.id = :id")
+                    .setParameter("id", id)
+                    .executeUpdate();
+            commitWrite(tx);
+            if (deleted > 0) {
+                log.info("Deleted user id={}", id);
+            }
+            return deleted > 0;
         } catch (Exception e) {
             rollbackQuietly(tx);
             throw new DaoException("Failed to delete user id=" + id, e);
         }
     }
 
-    private void rollbackQuietly(Transaction tx) {
+    /**
+     * Deletes in statements of 1000 ids inside one transaction, so either all rows go or none.
+     */
+    @Override
+    public int deleteAllById(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        Transaction tx = null;
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            tx = session.beginTransaction();
+            List<Long> distinct = List.copyOf(new LinkedHashSet<>(ids));
+            MutationQuery delete = session.createMutationQuery("delete from User u where u.id in (:ids)");
+            int deleted = 0;
+            for (int from = 0; from < distinct.size(); from += DELETE_CHUNK_SIZE) {
+                deleted += delete.setParameterList("ids", distinct.subList(from,
+                                Math.min(from + DELETE_CHUNK_SIZE, distinct.size())))
+                        .executeUpdate();
+            }
+            commitWrite(tx);
+            log.info("Deleted {} users", deleted);
+            return deleted;
+        } catch (Exception e) {
+            rollbackQuietly(tx);
+            throw new DaoException("Failed to delete users by ids", e);
+        }
+    }
+
+    private CriteriaPlans criteriaPlans(SessionFactory sessionFactory) {
+        CriteriaPlans plans = criteriaPlans;
+        if (plans == null || plans.sessionFactory != sessionFactory) {
+            plans = new CriteriaPlans(sessionFactory);
+            criteriaPlans = plans;
+        }
+        return plans;
+    }
+
+    private static <T> CriteriaQuery<T> buildFind(CriteriaBuilder cb, QueryShape shape, Class<T> resultType,
+                                                  Function<Root<User>, Selection<? extends T>> selection) {
+        CriteriaQuery<T> criteria = cb.createQuery(resultType);
+        Root<User> root = criteria.from(User.class);
+        criteria.select(selection.apply(root)).where(predicates(cb, root, shape));
+        Order byId = shape.sort() == UserQuery.Sort.CREATED_AT_DESC ? cb.desc(root.get("id")) : cb.asc(root.get("id"));
+        switch (shape.sort()) {
+            case ID -> criteria.orderBy(byId);
+            case NAME -> criteria.orderBy(cb.asc(root.get("name")), byId);
+            case AGE -> criteria.orderBy(cb.asc(root.get("age")), byId);
+            case CREATED_AT_DESC -> criteria.orderBy(cb.desc(root.get("createdAt")), byId);
+        }
+        return criteria;
+    }
+
+    private static CriteriaQuery<Long> buildCount(CriteriaBuilder cb, QueryShape shape) {
+        CriteriaQuery<Long> criteria = cb.createQuery(Long.class);
+        Root<User> root = criteria.from(User.class);
+        return criteria.select(cb.count(root)).where(predicates(cb, root, shape));
+    }
+
+    private static Predicate[] predicates(CriteriaBuilder cb, Root<User> root, QueryShape shape) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (shape.namePrefix()) {
+            predicates.add(cb.like(cb.lower(root.get("name")), cb.parameter(String.class, "namePrefix"), '\\'));
+        }
+        if (shape.minAge()) {
+            predicates.add(cb.ge(root.get("age"), cb.parameter(Integer.class, "minAge")));
+        }
+        if (shape.maxAge()) {
+            predicates.add(cb.le(root.get("age"), cb.parameter(Integer.class, "maxAge")));
+        }
+        if (shape.createdAfter()) {
+            predicates.add(cb.greaterThan(root.get("createdAt"), cb.parameter(LocalDateTime.class, "createdAfter")));
+        }
+        if (shape.createdBefore()) {
+            predicates.add(cb.lessThan(root.get("createdAt"), cb.parameter(LocalDateTime.class, "createdBefore")));
+        }
+        return predicates.toArray(Predicate[]::new);
+    }
+
+    private static <T> Query<T> bind(Query<T> query, UserQuery filter) {
+        query.setQueryPlanCacheable(true);
+        if (filter.namePrefix() != null) {
+            query.setParameter("namePrefix", escapeLike(filter.namePrefix().toLowerCase(Locale.ROOT)) + "%");
+        }
+        if (filter.minAge() != null) query.setParameter("minAge", filter.minAge());
+        if (filter.maxAge() != null) query.setParameter("maxAge", filter.maxAge());
+        if (filter.createdAfter() != null) query.setParameter("createdAfter", filter.createdAfter());
+        if (filter.createdBefore() != null) query.setParameter("createdBefore", filter.createdBefore());
+        return query;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    // read-only sessions skip dirty-checking snapshots; connections come from a replica when configured
+    private static Session openReadSession() {
+        Session session = HibernateUtil.getSessionFactory().openSession();
+        session.setDefaultReadOnly(true);
+        return session;
+    }
+
+    // no persistence context at all: projections are never snapshotted or cached
+    private static StatelessSession openStatelessSession() {
+        return HibernateUtil.getSessionFactory().openStatelessSession();
+    }
+
+    static boolean isOptimisticLockFailure(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof OptimisticLockException || t instanceof StaleStateException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean isConstraintViolation(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof ConstraintViolationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // reads on this thread stay on the primary for the read-your-writes window after a committed write
+    static void commitWrite(Transaction tx) {
+        tx.commit();
+        ReadRouting.recordWrite();
+    }
+
+    static void rollbackQuietly(Transaction tx) {
         if (tx != null) try { tx.rollback(); } catch (Exception ignored) {}
     }
-}
 
+    // criteria plans are cached by statement identity, so one CriteriaQuery per filter shape is built and reused
+    private static final class CriteriaPlans {
+        private final SessionFactory sessionFactory;
+        private final Map<QueryShape, CriteriaQuery<User>> find = new ConcurrentHashMap<>();
+        private final Map<QueryShape, CriteriaQuery<Long>> count = new ConcurrentHashMap<>();
+        private final Map<QueryShape, CriteriaQuery<UserSummary>> summaries = new ConcurrentHashMap<>();
+
+        CriteriaPlans(SessionFactory sessionFactory) {
+            this.sessionFactory = sessionFactory;
+        }
+    }
+
+    private record QueryShape(boolean namePrefix, boolean minAge, boolean maxAge, boolean createdAfter,
+                              boolean createdBefore, UserQuery.Sort sort) {
+        static QueryShape of(UserQuery query) {
+            return new QueryShape(query.namePrefix() != null, query.minAge() != null, query.maxAge() != null,
+                    query.createdAfter() != null, query.createdBefore() != null, query.sort());
+        }
+
+        QueryShape unsorted() {
+            return new QueryShape(namePrefix, minAge, maxAge, createdAfter, createdBefore, UserQuery.Sort.ID);
+        }
+    }
+
+    private static final class ClearingSpliterator extends Spliterators.AbstractSpliterator<User> {
+        private final Session session;
+        private final ScrollableResults<User> results;
+        private int sinceClear;
+
+        ClearingSpliterator(Session session, ScrollableResults<User> results) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.session = session;
+            this.results = results;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super User> action) {
+            User user;
+            try {
+                if (!results.next()) {
+                    return false;
+                }
+                user = results.get();
+            } catch (Exception e) {
+                throw new DaoException("Failed to stream users", e);
+            }
+            action.accept(user);
+            if (++sinceClear >= STREAM_FETCH_SIZE) {
+                session.clear();
+                sinceClear = 0;
+            }
+            return true;
+        }
+    }
+}
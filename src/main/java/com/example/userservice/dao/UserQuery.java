@@ -0,0 +1,57 @@
+package com.example.userservice.dao;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Filter for {@link UserDao#find(UserQuery)}: every criterion is optional, {@code null} means "any".
+ * Name prefix matching is case-insensitive. Results are ordered by {@link Sort} with id as tie-breaker.
+ */
+public record UserQuery(String namePrefix, Integer minAge, Integer maxAge, LocalDateTime createdAfter,
+                        LocalDateTime createdBefore, Sort sort, int limit) {
+    public static final int DEFAULT_LIMIT = 100;
+
+    public enum Sort { ID, NAME, AGE, CREATED_AT_DESC }
+
+    public UserQuery {
+        Objects.requireNonNull(sort, "sort");
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        if (minAge != null && maxAge != null && minAge > maxAge) {
+            throw new IllegalArgumentException("minAge must not exceed maxAge");
+        }
+        if (createdAfter != null && createdBefore != null && !createdAfter.isBefore(createdBefore)) {
+            throw new IllegalArgumentException("createdAfter must be before createdBefore");
+        }
+    }
+
+    public static UserQuery all() {
+        return new UserQuery(null, null, null, null, null, Sort.ID, DEFAULT_LIMIT);
+    }
+
+    public UserQuery withNamePrefix(String prefix) {
+        return new UserQuery(prefix, minAge, maxAge, createdAfter, createdBefore, sort, limit);
+    }
+
+    public UserQuery withAgeBetween(Integer min, Integer max) {
+        return new UserQuery(namePrefix, min, max, createdAfter, createdBefore, sort, limit);
+    }
+
+    public UserQuery withCreatedAfter(LocalDateTime time) {
+        return new UserQuery(namePrefix, minAge, maxAge, time, createdBefore, sort, limit);
+    }
+
+    /** Exclusive upper bound on {@code created_at}; with a partitioned table both bounds limit the partitions scanned. */
+    public UserQuery withCreatedBefore(LocalDateTime time) {
+        return new UserQuery(namePrefix, minAge, maxAge, createdAfter, time, sort, limit);
+    }
+
+    public UserQuery sortedBy(Sort order) {
+        return new UserQuery(namePrefix, minAge, maxAge, createdAfter, createdBefore, order, limit);
+    }
+
+    public UserQuery withLimit(int max) {
+        return new UserQuery(namePrefix, minAge, maxAge, createdAfter, createdBefore, sort, max);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.userservice.dao;
+
+import com.example.userservice.model.User;
+
+import java.util.Objects;
+
+/**
+ * New state for {@link UserDao#updateAll}: name, email, age and version of {@code user} are written
+ * only if the stored row still has {@code expectedVersion}.
+ */
+public record VersionedUpdate(User user, long expectedVersion) {
+
+    public VersionedUpdate {
+        Objects.requireNonNull(user.getId(), "id");
+        if (user.getVersion() <= expectedVersion) {
+            throw new IllegalArgumentException("New version must be greater than the expected version");
+        }
+    }
+}
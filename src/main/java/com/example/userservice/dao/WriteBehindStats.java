@@ -0,0 +1,10 @@
+package com.example.userservice.dao;
+
+public record WriteBehindStats(long bufferedUpdates, long writtenRows, long droppedRows, long rejectedRows,
+                               long failedFlushes, int pending) {
+
+    /** Buffered updates per row written; 1.0 means nothing was coalesced. */
+    public double coalescingRatio() {
+        return writtenRows == 0 ? 0.0 : (double) bufferedUpdates / writtenRows;
+    }
+}
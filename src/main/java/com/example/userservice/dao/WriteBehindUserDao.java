@@ -0,0 +1,499 @@
+package com.example.userservice.dao;
+
+import com.example.userservice.exception.ConcurrentUpdateException;
+import com.example.userservice.exception.DaoException;
+import com.example.userservice.model.User;
+import com.example.userservice.util.ReadRouting;
+import com.example.userservice.util.ThreadPools;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Write-behind buffer for {@link #update}: the latest state of each updated user is kept per id,
+ * so repeated updates of a hot user coalesce, and a background thread writes the buffer through
+ * {@link UserDao#updateAll} every {@code flushInterval} or once {@code batchSize} users are pending.
+ * <p>
+ * Versions are checked against the primary when an update is buffered, so
+ * {@link ConcurrentUpdateException} is still thrown to the caller; a row changed by another writer
+ * before the flush is dropped, logged and counted. Id and email lookups see buffered state, while
+ * queries, counts and summaries may lag by one flush. Email changes and every other write go
+ * straight to the delegate after the affected users are flushed. At most {@code maxPending} users
+ * are buffered: further updates block and fail with {@link DaoException} after {@code offerTimeout}.
+ */
+public class WriteBehindUserDao extends ForwardingUserDao implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindUserDao.class);
+    private static final int LOCK_STRIPES = 64;
+
+    private final int batchSize;
+    private final long offerTimeoutNanos;
+    private final ConcurrentHashMap<Long, Pending> pending = new ConcurrentHashMap<>();
+    private final Semaphore capacity;
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    private final Object flushLock = new Object();
+    private final ScheduledExecutorService flusher;
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final LongAdder bufferedUpdates = new LongAdder();
+    private final LongAdder writtenRows = new LongAdder();
+    private final LongAdder droppedRows = new LongAdder();
+    private final LongAdder rejectedRows = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    private final Timer flushTimer;
+    private volatile boolean closed;
+
+    public WriteBehindUserDao(UserDao delegate, int maxPending, int batchSize, Duration flushInterval,
+                              MeterRegistry registry) {
+        this(delegate, maxPending, batchSize, flushInterval, Duration.ofSeconds(5), registry);
+    }
+
+    public WriteBehindUserDao(UserDao delegate, int maxPending, int batchSize, Duration flushInterval,
+                              Duration offerTimeout, MeterRegistry registry) {
+        super(delegate);
+        if (maxPending <= 0 || batchSize <= 0 || flushInterval.isNegative() || flushInterval.isZero()) {
+            throw new IllegalArgumentException("Buffer size, batch size and flush interval must be positive");
+        }
+        this.batchSize = batchSize;
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+        this.capacity = new Semaphore(maxPending);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.flushTimer = Timer.builder("userdao.writebehind.flush")
+                .description("Write-behind batch flush latency")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+        FunctionCounter.builder("userdao.writebehind.updates", bufferedUpdates, LongAdder::sum)
+                .description("Updates accepted into the write-behind buffer").register(registry);
+        FunctionCounter.builder("userdao.writebehind.rows", writtenRows, LongAdder::sum)
+                .description("Rows written by write-behind flushes").register(registry);
+        FunctionCounter.builder("userdao.writebehind.dropped", droppedRows, LongAdder::sum)
+                .description("Buffered rows dropped because the row changed before the flush").register(registry);
+        FunctionCounter.builder("userdao.writebehind.rejected", rejectedRows, LongAdder::sum)
+                .description("Buffered rows dropped because the database rejected them").register(registry);
+        Gauge.builder("userdao.writebehind.pending", pending, ConcurrentHashMap::size).register(registry);
+        Gauge.builder("userdao.writebehind.coalescing.ratio", this, dao -> dao.stats().coalescingRatio())
+                .register(registry);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(ThreadPools.daemonThreads("user-write-behind"));
+        long intervalMillis = Math.max(1, flushInterval.toMillis());
+        flusher.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public User update(User user) {
+        Long id = user.getId();
+        if (id == null) {
+            return delegate.update(user);
+        }
+        // a row the table would reject must fail here, not later in a flush nobody is waiting for
+        InMemoryUserDao.checkColumns(user.getName(), user.getEmail(), "Failed to update user id=" + id);
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            if (closed) {
+                flushIds(List.of(id));
+                return delegate.update(user);
+            }
+            while (true) {
+                Pending current = pending.get(id);
+                if (current == null) {
+                    return bufferFirst(user);
+                }
+                if (current.state.getVersion() != user.getVersion()) {
+                    throw conflict(user);
+                }
+                if (!Objects.equals(current.state.getEmail(), user.getEmail())) {
+                    flushIds(List.of(id));
+                    continue;
+                }
+                if (sameValues(current.state, user)) {
+                    return copy(current.state);
+                }
+                User next = copy(user, current.state.getCreatedAt(), user.getVersion() + 1);
+                // a concurrent flush may have rebased or removed the entry; retry against the new one
+                if (pending.replace(id, current, new Pending(next, current.baseVersion, ReadRouting.capture()))) {
+                    bufferedUpdates.increment();
+                    return copy(next);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // caller holds the id's lock
+    private User bufferFirst(User user) {
+        Optional<User> stored;
+        try (ReadRouting.Scope ignored = ReadRouting.primary()) {
+            stored = delegate.findById(user.getId());
+        }
+        if (stored.isEmpty() || stored.get().getVersion() != user.getVersion()) {
+            throw conflict(user);
+        }
+        if (!Objects.equals(stored.get().getEmail(), user.getEmail())) {
+            return delegate.update(user);
+        }
+        if (sameValues(stored.get(), user)) {
+            return stored.get();
+        }
+        acquireCapacity();
+        User next = copy(user, stored.get().getCreatedAt(), user.getVersion() + 1);
+        pending.put(user.getId(), new Pending(next, user.getVersion(), ReadRouting.capture()));
+        bufferedUpdates.increment();
+        if (pending.size() >= batchSize) {
+            requestFlush();
+        }
+        return copy(next);
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        Pending buffered = id == null ? null : pending.get(id);
+        return buffered != null ? Optional.of(copy(buffered.state)) : delegate.findById(id);
+    }
+
+    @Override
+    public List<User> findAllById(Collection<Long> ids) { return overlay(delegate.findAllById(ids)); }
+
+    @Override
+    public Optional<User> findByEmail(String email) { return delegate.findByEmail(email).map(this::overlay); }
+
+    @Override
+    public List<User> findByEmails(Collection<String> emails) { return overlay(delegate.findByEmails(emails)); }
+
+    @Override
+    public List<User> findAll() { return overlay(delegate.findAll()); }
+
+    @Override
+    public List<User> findPageAfter(Long lastId, int limit) { return overlay(delegate.findPageAfter(lastId, limit)); }
+
+    @Override
+    public List<User> find(UserQuery query) { return overlay(delegate.find(query)); }
+
+    @Override
+    public Stream<User> streamAll() { return delegate.streamAll().map(this::overlay); }
+
+    @Override
+    public User upsertByEmail(User user) {
+        flush();
+        return delegate.upsertByEmail(user);
+    }
+
+    @Override
+    public List<User> upsertAll(Collection<User> users) {
+        flush();
+        return delegate.upsertAll(users);
+    }
+
+    @Override
+    public int updatePartial(Long id, String name, String email, Integer age) {
+        if (id == null) {
+            return delegate.updatePartial(null, name, email, age);
+        }
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            flushIds(List.of(id));
+            return delegate.updatePartial(id, name, email, age);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Long> updateAll(Collection<VersionedUpdate> updates) {
+        flushIds(updates.stream().map(update -> update.user().getId()).toList());
+        return delegate.updateAll(updates);
+    }
+
+    @Override
+    public int updateAgeWhere(int minAge, int maxAge, Integer newAge) {
+        flush();
+        return delegate.updateAgeWhere(minAge, maxAge, newAge);
+    }
+
+    @Override
+    public boolean deleteById(Long id) {
+        if (id == null) {
+            return delegate.deleteById(null);
+        }
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            discard(id);
+            return delegate.deleteById(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int deleteAllById(Collection<Long> ids) {
+        ids.forEach(this::discard);
+        return delegate.deleteAllById(ids);
+    }
+
+    /**
+     * Writes every buffered user in batches. A failed batch is retried row by row: rows the database
+     * rejects are dropped and counted, and on any other failure the rest stays buffered for the next flush.
+     * Returns the number of rows written.
+     */
+    public int flush() {
+        synchronized (flushLock) {
+            List<Pending> snapshot = new ArrayList<>(pending.values());
+            int written = 0;
+            for (int from = 0; from < snapshot.size(); from += batchSize) {
+                List<Pending> batch = snapshot.subList(from, Math.min(from + batchSize, snapshot.size()));
+                try {
+                    written += write(batch);
+                } catch (RuntimeException e) {
+                    log.warn("Write-behind batch of {} users failed, retrying row by row", batch.size(), e);
+                    int rows = writeOneByOne(batch);
+                    if (rows < 0) {
+                        log.error("Write-behind flush failed; {} users stay buffered", pending.size());
+                        break;
+                    }
+                    written += rows;
+                }
+            }
+            return written;
+        }
+    }
+
+    public WriteBehindStats stats() {
+        return new WriteBehindStats(bufferedUpdates.sum(), writtenRows.sum(), droppedRows.sum(), rejectedRows.sum(),
+                failedFlushes.sum(), pending.size());
+    }
+
+    /**
+     * Stops the background flusher and writes what is left. Later updates are written through.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Write-behind flusher did not stop in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int written = flush();
+        if (pending.isEmpty()) {
+            log.info("Write-behind buffer closed, {} users written on close; {}", written, stats());
+        } else {
+            log.error("Write-behind buffer closed with {} unwritten users", pending.size());
+        }
+    }
+
+    // the caller needs these rows on disk before it continues, so failures are rethrown
+    private void flushIds(Collection<Long> ids) {
+        synchronized (flushLock) {
+            List<Pending> batch = new ArrayList<>();
+            for (Long id : new HashSet<>(ids)) {
+                Pending buffered = id == null ? null : pending.get(id);
+                if (buffered != null) {
+                    batch.add(buffered);
+                }
+            }
+            for (int from = 0; from < batch.size(); from += batchSize) {
+                write(batch.subList(from, Math.min(from + batchSize, batch.size())));
+            }
+        }
+    }
+
+    private int write(List<Pending> batch) {
+        List<VersionedUpdate> updates = batch.stream()
+                .map(buffered -> new VersionedUpdate(buffered.state, buffered.baseVersion))
+                .toList();
+        long start = System.nanoTime();
+        List<Long> stale;
+        try {
+            stale = delegate.updateAll(updates);
+        } catch (RuntimeException e) {
+            failedFlushes.increment();
+            throw e;
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        Set<Long> staleIds = new HashSet<>(stale);
+        for (Pending written : batch) {
+            long id = written.state.getId();
+            boolean dropped = staleIds.contains(id);
+            boolean[] removed = new boolean[1];
+            pending.computeIfPresent(id, (key, current) -> {
+                if (current == written || dropped) {
+                    removed[0] = true;
+                    return null;
+                }
+                // updated while the batch was written: keep the newer state on top of the written version
+                return new Pending(current.state, written.state.getVersion(), current.writer);
+            });
+            if (removed[0]) {
+                capacity.release();
+            }
+            if (dropped) {
+                droppedRows.increment();
+                log.warn("Dropped buffered update of user id={}: the row changed after version {}", id, written.baseVersion);
+            } else {
+                // the flusher committed it, but the caller that buffered it is the one reading it back
+                written.writer.recordWrite();
+            }
+        }
+        int rows = batch.size() - staleIds.size();
+        writtenRows.add(rows);
+        return rows;
+    }
+
+    // returns the rows written, or -1 when a failure is not specific to a row and the flush should stop
+    private int writeOneByOne(List<Pending> batch) {
+        int written = 0;
+        for (Pending row : batch) {
+            try {
+                written += write(List.of(row));
+            } catch (RuntimeException e) {
+                if (!isRejected(e)) {
+                    return -1;
+                }
+                if (pending.remove(row.state.getId(), row)) {
+                    capacity.release();
+                }
+                rejectedRows.increment();
+                log.error("Dropped buffered update of user id={}: rejected by the database", row.state.getId(), e);
+            }
+        }
+        return written;
+    }
+
+    // constraint and data errors (SQLState classes 22 and 23) fail again on every retry; anything else may pass later
+    private static boolean isRejected(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql && sql.getSQLState() != null
+                    && (sql.getSQLState().startsWith("22") || sql.getSQLState().startsWith("23"))) {
+                return true;
+            }
+            if (cause instanceof IllegalArgumentException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void flushQuietly() {
+        flushRequested.set(false);
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Write-behind flush failed", e);
+        }
+    }
+
+    private void requestFlush() {
+        if (flushRequested.compareAndSet(false, true)) {
+            try {
+                flusher.execute(this::flushQuietly);
+            } catch (RejectedExecutionException e) {
+                flushRequested.set(false);
+            }
+        }
+    }
+
+    private void acquireCapacity() {
+        if (capacity.tryAcquire()) {
+            return;
+        }
+        requestFlush();
+        try {
+            if (capacity.tryAcquire(offerTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        throw new DaoException("Write-behind buffer is full: " + pending.size() + " users waiting to be written");
+    }
+
+    private void discard(Long id) {
+        if (id != null && pending.remove(id) != null) {
+            capacity.release();
+        }
+    }
+
+    private List<User> overlay(List<User> users) {
+        if (pending.isEmpty()) {
+            return users;
+        }
+        return users.stream().map(this::overlay).toList();
+    }
+
+    private User overlay(User user) {
+        Pending buffered = pending.get(user.getId());
+        return buffered == null ? user : copy(buffered.state);
+    }
+
+    private ReentrantLock lockFor(long id) {
+        return locks[(int) (id ^ (id >>> 32)) & (LOCK_STRIPES - 1)];
+    }
+
+    private static ConcurrentUpdateException conflict(User user) {
+        return new ConcurrentUpdateException("User id=" + user.getId()
+                + " was modified concurrently (version " + user.getVersion() + ")");
+    }
+
+    private static boolean sameValues(User a, User b) {
+        return Objects.equals(a.getName(), b.getName()) && Objects.equals(a.getEmail(), b.getEmail())
+                && Objects.equals(a.getAge(), b.getAge());
+    }
+
+    private static User copy(User user) {
+        return copy(user, user.getCreatedAt(), user.getVersion());
+    }
+
+    private static User copy(User user, LocalDateTime createdAt, long version) {
+        User copy = new User(user.getName(), user.getEmail(), user.getAge());
+        copy.setId(user.getId());
+        copy.setCreatedAt(createdAt);
+        copy.setVersion(version);
+        return copy;
+    }
+
+    // compared by identity: replace() and the flush must notice any newer entry, even an equal one
+    private static final class Pending {
+        final User state;
+        final long baseVersion;
+        final ReadRouting.Context writer;
+
+        Pending(User state, long baseVersion, ReadRouting.Context writer) {
+            this.state = state;
+            this.baseVersion = baseVersion;
+            this.writer = writer;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.userservice.exception;
+
+/** The row was changed by someone else since it was read (optimistic lock failure). */
+public class ConcurrentUpdateException extends DaoException {
+    public ConcurrentUpdateException(String message, Throwable cause) { super(message, cause); }
+    public ConcurrentUpdateException(String message) { super(message); }
+}
@@ -0,0 +1,6 @@
+package com.example.userservice.exception;
+
+public class DuplicateEmailException extends DaoException {
+    public DuplicateEmailException(String message, Throwable cause) { super(message, cause); }
+    public DuplicateEmailException(String message) { super(message); }
+}
@@ -1,26 +1,39 @@
 package com.example.userservice.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.NaturalId;
 
 import java.time.LocalDateTime;
 import java.util.Objects;
 
 @Entity
+@DynamicUpdate
 @Table(
         name = "users",
-        uniqueConstraints = @UniqueConstraint(name = "uk_users_email", columnNames = "email")
+        uniqueConstraints = @UniqueConstraint(name = "uk_users_email", columnNames = "email"),
+        indexes = {
+                @Index(name = "idx_users_created_at", columnList = "created_at"),
+                @Index(name = "idx_users_age", columnList = "age")
+        }
 )
 public class User {
+    public static final int ID_ALLOCATION_SIZE = 50;
+    public static final int NAME_LENGTH = 100;
+    public static final int EMAIL_LENGTH = 150;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
-    @Column(nullable = false, length = 100)
+    @Column(nullable = false, length = NAME_LENGTH)
     private String name;
 
-    @Column(nullable = false, length = 150)
+    @NaturalId(mutable = true)
+    @Column(nullable = false, length = EMAIL_LENGTH)
     private String email;
 
     private Integer age;
@@ -29,6 +42,12 @@ public class User {
     @Column(name = "created_at", updatable = false, nullable = false)
     private LocalDateTime createdAt;
 
+    // default 0 lets schema update add the column to a populated table
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
     public User() {}
 
     public User(String name, String email, Integer age) {
@@ -51,6 +70,10 @@ public class User {
     public void setAge(Integer age) { this.age = age; }
 
     public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
 
     @Override
     public String toString() {
@@ -60,6 +83,7 @@ public class User {
                 ", email='" + email + '\'' +
                 ", age=" + age +
                 ", createdAt=" + createdAt +
+                ", version=" + version +
                 '}';
     }
 
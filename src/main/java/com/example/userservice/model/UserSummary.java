@@ -0,0 +1,7 @@
+package com.example.userservice.model;
+
+/**
+ * Read-only view of a user for listings; loaded by column projection, never managed by a Session.
+ */
+public record UserSummary(Long id, String name, String email) {
+}
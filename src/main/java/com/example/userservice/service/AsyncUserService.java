@@ -0,0 +1,126 @@
+package com.example.userservice.service;
+
+import com.example.userservice.model.User;
+import com.example.userservice.util.HibernateUtil;
+import com.example.userservice.util.PoolStats;
+import com.example.userservice.util.ReadRouting;
+import com.example.userservice.util.ThreadPools;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking facade over UserService. At most {@code maxConcurrency} calls
+ * run against the DAO at once, so callers cannot oversubscribe the connection pool.
+ */
+public class AsyncUserService implements AutoCloseable {
+
+    private final UserService userService;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+
+    public AsyncUserService(UserService userService, ExecutorService executor, int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("Concurrency limit must be positive");
+        }
+        this.userService = userService;
+        this.executor = executor;
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public static AsyncUserService create(UserService userService, int maxConcurrency) {
+        return new AsyncUserService(userService,
+                ThreadPools.newTaskExecutor("async-user-service", maxConcurrency), maxConcurrency);
+    }
+
+    public static AsyncUserService forConnectionPool(UserService userService) {
+        int poolSize = HibernateUtil.getPoolStats()
+                .map(PoolStats::maximumPoolSize)
+                .orElse(Runtime.getRuntime().availableProcessors());
+        return create(userService, poolSize);
+    }
+
+    public CompletableFuture<User> createUser(String name, String email, Integer age) {
+        return submit(() -> userService.createUser(name, email, age));
+    }
+
+    public CompletableFuture<List<User>> createUsers(Collection<User> users) {
+        return submit(() -> userService.createUsers(users));
+    }
+
+    public CompletableFuture<Optional<User>> getUserById(Long id) {
+        return submit(() -> userService.getUserById(id));
+    }
+
+    public CompletableFuture<List<User>> getUsersByIds(Collection<Long> ids) {
+        return submit(() -> userService.getUsersByIds(ids));
+    }
+
+    public CompletableFuture<Optional<User>> getUserByEmail(String email) {
+        return submit(() -> userService.getUserByEmail(email));
+    }
+
+    public CompletableFuture<List<User>> getAllUsers(Long afterId, int limit) {
+        return submit(() -> userService.getAllUsers(afterId, limit));
+    }
+
+    public CompletableFuture<User> updateUser(Long id, String name, String email, Integer age) {
+        return submit(() -> userService.updateUser(id, name, email, age));
+    }
+
+    public CompletableFuture<Boolean> patchUser(Long id, String name, String email, Integer age) {
+        return submit(() -> userService.patchUser(id, name, email, age));
+    }
+
+    public CompletableFuture<Boolean> deleteUser(Long id) {
+        return submit(() -> userService.deleteUser(id));
+    }
+
+    public int maxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public int inFlight() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // tasks read and write with the submitting thread's routing, so its read-your-writes window follows them
+    private <T> CompletableFuture<T> submit(Supplier<T> call) {
+        ReadRouting.Context routing = ReadRouting.capture();
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+            try (ReadRouting.Scope ignored = routing.apply()) {
+                return call.get();
+            } finally {
+                permits.release();
+            }
+        }, executor);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.userservice.service;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Bounded retries with exponential backoff and full jitter: before attempt {@code n + 1}
+ * the caller sleeps a random time in {@code [0, min(maxDelay, baseDelay * 2^(n-1))]}.
+ */
+public record RetryPolicy(int maxAttempts, Duration baseDelay, Duration maxDelay) {
+
+    public RetryPolicy {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1");
+        }
+        if (baseDelay.isNegative() || maxDelay.isNegative()) {
+            throw new IllegalArgumentException("Delays must not be negative");
+        }
+    }
+
+    public static RetryPolicy defaults() {
+        return new RetryPolicy(5, Duration.ofMillis(10), Duration.ofMillis(200));
+    }
+
+    public static RetryPolicy none() {
+        return new RetryPolicy(1, Duration.ZERO, Duration.ZERO);
+    }
+
+    /** Backoff before the retry that follows failed attempt {@code attempt} (1-based). */
+    public long backoffMillis(int attempt) {
+        long cap = baseDelay.toMillis() << Math.min(attempt - 1, 20);
+        long bound = Math.min(maxDelay.toMillis(), cap);
+        return bound <= 0 ? 0 : ThreadLocalRandom.current().nextLong(bound + 1);
+    }
+}
@@ -1,28 +1,72 @@
 package com.example.userservice.service;
 
 import com.example.userservice.dao.UserDao;
+import com.example.userservice.dao.UserQuery;
+import com.example.userservice.exception.ConcurrentUpdateException;
 import com.example.userservice.exception.DaoException;
 import com.example.userservice.model.User;
+import com.example.userservice.model.UserSummary;
+import com.example.userservice.util.ReadRouting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class UserService {
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
+    public static final int MAX_SEARCH_LIMIT = 1000;
 
     private final UserDao userDao;
+    private final RetryPolicy retryPolicy;
 
     public UserService(UserDao userDao) {
+        this(userDao, RetryPolicy.defaults());
+    }
+
+    public UserService(UserDao userDao, RetryPolicy retryPolicy) {
         this.userDao = userDao;
+        this.retryPolicy = retryPolicy;
     }
 
     public User createUser(String name, String email, Integer age) {
-        if (name == null || name.isBlank() || email == null || email.isBlank()) {
-            throw new IllegalArgumentException("Name and email must not be empty");
-        }
+        validate(name, email);
         User user = new User(name, email, age);
         return userDao.create(user);
     }
 
+    public List<User> createUsers(Collection<User> users) {
+        if (users == null) {
+            throw new IllegalArgumentException("Users must not be null");
+        }
+        users.forEach(this::validate);
+        return userDao.createAll(users);
+    }
+
+    /** Creates the user or updates name and age of the user with the same email. */
+    public User upsertUser(String name, String email, Integer age) {
+        validate(name, email);
+        return userDao.upsertByEmail(new User(name, email, age));
+    }
+
+    public List<User> upsertUsers(Collection<User> users) {
+        if (users == null) {
+            throw new IllegalArgumentException("Users must not be null");
+        }
+        users.forEach(this::validate);
+        return userDao.upsertAll(users);
+    }
+
+    public void validate(User user) {
+        if (user == null) {
+            throw new IllegalArgumentException("User must not be null");
+        }
+        validate(user.getName(), user.getEmail());
+    }
+
     public Optional<User> getUserById(Long id) {
         if (id == null || id <= 0) {
             throw new IllegalArgumentException("Invalid ID");
@@ -30,26 +74,127 @@ public class UserService {
         return userDao.findById(id);
     }
 
+    public List<User> getUsersByIds(Collection<Long> ids) {
+        if (ids == null || ids.stream().anyMatch(id -> id == null || id <= 0)) {
+            throw new IllegalArgumentException("Invalid ID");
+        }
+        return userDao.findAllById(ids);
+    }
+
+    public Optional<User> getUserByEmail(String email) {
+        requireEmail(email);
+        return userDao.findByEmail(email);
+    }
+
+    public boolean existsByEmail(String email) {
+        requireEmail(email);
+        return userDao.existsByEmail(email);
+    }
+
+    public List<User> getUsersByEmails(Collection<String> emails) {
+        if (emails == null) {
+            throw new IllegalArgumentException("Emails must not be null");
+        }
+        emails.forEach(UserService::requireEmail);
+        return userDao.findByEmails(emails);
+    }
+
     public List<User> getAllUsers() {
         return userDao.findAll();
     }
 
-    public User updateUser(Long id, String name, String email, Integer age) {
-        Optional<User> existing = userDao.findById(id);
-        if (existing.isEmpty()) {
-            throw new DaoException("User not found with id: " + id);
+    public List<User> getAllUsers(Long afterId, int limit) {
+        if (afterId != null && afterId < 0) {
+            throw new IllegalArgumentException("Invalid ID");
         }
-        User user = existing.get();
-        if (name != null && !name.isBlank()) {
-            user.setName(name);
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
         }
-        if (email != null && !email.isBlank()) {
-            user.setEmail(email);
+        return userDao.findPageAfter(afterId, limit);
+    }
+
+    public List<User> searchUsers(UserQuery query) {
+        requireQuery(query);
+        if (query.limit() > MAX_SEARCH_LIMIT) {
+            throw new IllegalArgumentException("Limit must not exceed " + MAX_SEARCH_LIMIT);
         }
-        if (age != null) {
-            user.setAge(age);
+        return userDao.find(query);
+    }
+
+    public List<UserSummary> getUserSummaries() {
+        return userDao.findAllSummaries();
+    }
+
+    public List<UserSummary> searchUserSummaries(UserQuery query) {
+        requireQuery(query);
+        if (query.limit() > MAX_SEARCH_LIMIT) {
+            throw new IllegalArgumentException("Limit must not exceed " + MAX_SEARCH_LIMIT);
         }
-        return userDao.update(user);
+        return userDao.findSummaries(query);
+    }
+
+    public long countUsers(UserQuery query) {
+        requireQuery(query);
+        return userDao.count(query);
+    }
+
+    public Stream<User> streamAllUsers() {
+        return userDao.streamAll();
+    }
+
+    public User updateUser(Long id, String name, String email, Integer age) {
+        rejectLineBreaks(name, email);
+        return updateUser(id, user -> {
+            if (name != null && !name.isBlank()) {
+                user.setName(name);
+            }
+            if (email != null && !email.isBlank()) {
+                user.setEmail(email);
+            }
+            if (age != null) {
+                user.setAge(age);
+            }
+        });
+    }
+
+    /**
+     * Read-modify-write under optimistic locking: on a concurrent modification the user is
+     * re-read and {@code change} applied again, as allowed by the retry policy. Reads go to the primary,
+     * a lagging replica would return the same stale version on every attempt.
+     */
+    public User updateUser(Long id, Consumer<User> change) {
+        for (int attempt = 1; ; attempt++) {
+            User user;
+            try (ReadRouting.Scope ignored = ReadRouting.primary()) {
+                user = userDao.findById(id)
+                        .orElseThrow(() -> new DaoException("User not found with id: " + id));
+            }
+            change.accept(user);
+            try {
+                return userDao.update(user);
+            } catch (ConcurrentUpdateException e) {
+                if (attempt >= retryPolicy.maxAttempts()) {
+                    throw e;
+                }
+                log.debug("Concurrent update of user id={}, retry {}/{}", id, attempt, retryPolicy.maxAttempts() - 1);
+                backoff(attempt, e);
+            }
+        }
+    }
+
+    public boolean patchUser(Long id, String name, String email, Integer age) {
+        if (id == null || id <= 0) {
+            throw new IllegalArgumentException("Invalid ID");
+        }
+        rejectLineBreaks(name, email);
+        return userDao.updatePartial(id, blankToNull(name), blankToNull(email), age) > 0;
+    }
+
+    public int updateAgeWhere(int minAge, int maxAge, Integer newAge) {
+        if (minAge > maxAge) {
+            throw new IllegalArgumentException("Minimum age must not exceed maximum age");
+        }
+        return userDao.updateAgeWhere(minAge, maxAge, newAge);
     }
 
     public boolean deleteUser(Long id) {
@@ -58,4 +203,57 @@ public class UserService {
         }
         return userDao.deleteById(id);
     }
+
+    public int deleteUsers(Collection<Long> ids) {
+        if (ids == null || ids.stream().anyMatch(id -> id == null || id <= 0)) {
+            throw new IllegalArgumentException("Invalid ID");
+        }
+        return userDao.deleteAllById(ids);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private static void validate(String name, String email) {
+        if (name == null || name.isBlank() || email == null || email.isBlank()) {
+            throw new IllegalArgumentException("Name and email must not be empty");
+        }
+        rejectLineBreaks(name, email);
+    }
+
+    // import/export files hold one user per line
+    private static void rejectLineBreaks(String name, String email) {
+        if (hasLineBreak(name) || hasLineBreak(email)) {
+            throw new IllegalArgumentException("Name and email must not contain line breaks");
+        }
+    }
+
+    private static boolean hasLineBreak(String value) {
+        return value != null && (value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0);
+    }
+
+    private static void requireEmail(String email) {
+        if (email == null || email.isBlank()) {
+            throw new IllegalArgumentException("Email must not be empty");
+        }
+    }
+
+    private void backoff(int attempt, ConcurrentUpdateException cause) {
+        try {
+            Thread.sleep(retryPolicy.backoffMillis(attempt));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw cause;
+        }
+    }
+
+    private static void requireQuery(UserQuery query) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query must not be null");
+        }
+        if ((query.minAge() != null && query.minAge() < 0) || (query.maxAge() != null && query.maxAge() < 0)) {
+            throw new IllegalArgumentException("Age must not be negative");
+        }
+    }
 }
@@ -0,0 +1,8 @@
+package com.example.userservice.util;
+
+public record BootstrapTimings(long registryMillis, long metadataMillis, long sessionFactoryMillis) {
+
+    public long totalMillis() {
+        return registryMillis + metadataMillis + sessionFactoryMillis;
+    }
+}
@@ -1,38 +1,233 @@
 package com.example.userservice.util;
 
 import com.example.userservice.model.User;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import org.hibernate.SessionFactory;
 import org.hibernate.boot.Metadata;
 import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.model.relational.SimpleAuxiliaryDatabaseObject;
 import org.hibernate.boot.registry.StandardServiceRegistry;
 import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Builds the SessionFactory lazily on first use. With {@code -Duserservice.fastStart=true}
+ * schema management and JDBC metadata probing are skipped at bootstrap.
+ */
 public final class HibernateUtil {
     private static final Logger log = LoggerFactory.getLogger(HibernateUtil.class);
-    private static final SessionFactory SESSION_FACTORY;
+    private static final String MAXIMUM_POOL_SIZE = "hibernate.hikari.maximumPoolSize";
+    private static final String HBM2DDL_AUTO = "hibernate.hbm2ddl.auto";
+    private static final String ALLOW_JDBC_METADATA_ACCESS = "hibernate.boot.allow_jdbc_metadata_access";
+    private static final String CONNECTION_PROVIDER = "hibernate.connection.provider_class";
+    private static final String GENERATE_STATISTICS = "hibernate.generate_statistics";
+    private static final String ALIGN_USER_SEQUENCE_SQL = "select setval('users_seq', m) "
+            + "from (select max(id) as m from users) t where m >= (select last_value from users_seq)";
+
+    private static volatile SessionFactory sessionFactory;
+    private static volatile BootstrapTimings bootstrapTimings;
+    private static final Deque<Runnable> shutdownActions = new ArrayDeque<>();
+    private static boolean shutdownHookRegistered;
+
+    private HibernateUtil() {}
+
+    public static SessionFactory getSessionFactory() {
+        SessionFactory current = sessionFactory;
+        if (current != null) {
+            return current;
+        }
+        synchronized (HibernateUtil.class) {
+            if (sessionFactory == null) {
+                sessionFactory = build();
+            }
+            return sessionFactory;
+        }
+    }
+
+    /** Starts the bootstrap on a background thread so it overlaps with the rest of startup. */
+    public static CompletableFuture<SessionFactory> startAsync() {
+        return CompletableFuture.supplyAsync(HibernateUtil::getSessionFactory,
+                task -> ThreadPools.daemonThreads("hibernate-bootstrap").newThread(task).start());
+    }
+
+    public static Optional<BootstrapTimings> getBootstrapTimings() {
+        return Optional.ofNullable(bootstrapTimings);
+    }
+
+    /**
+     * Runs {@code action} in {@link #shutdown()} (and so in the JVM shutdown hook) while the SessionFactory
+     * is still open. Actions run once, most recently registered first.
+     */
+    public static synchronized void registerShutdownAction(Runnable action) {
+        shutdownActions.push(action);
+        registerShutdownHook();
+    }
+
+    public static synchronized void shutdown() {
+        while (!shutdownActions.isEmpty()) {
+            try {
+                shutdownActions.pop().run();
+            } catch (RuntimeException e) {
+                log.error("Shutdown action failed", e);
+            }
+        }
+        if (sessionFactory != null) {
+            log.info("Shutting down SessionFactory");
+            sessionFactory.close();
+            sessionFactory = null;
+        }
+    }
+
+    public static Optional<PoolStats> getPoolStats() {
+        ConnectionProvider provider = getSessionFactory().unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(ConnectionProvider.class);
+        if (provider == null || !provider.isUnwrappableAs(HikariDataSource.class)) {
+            return Optional.empty();
+        }
+        HikariDataSource dataSource = provider.unwrap(HikariDataSource.class);
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new PoolStats(pool.getActiveConnections(), pool.getIdleConnections(),
+                pool.getTotalConnections(), pool.getThreadsAwaitingConnection(), dataSource.getMaximumPoolSize()));
+    }
 
-    static {
+    private static SessionFactory build() {
+        StandardServiceRegistry registry = null;
         try {
-            StandardServiceRegistry registry =
-                    new StandardServiceRegistryBuilder().configure().build();
+            long start = System.nanoTime();
+            StandardServiceRegistryBuilder builder = new StandardServiceRegistryBuilder().configure();
+            if (Boolean.getBoolean("userservice.fastStart")) {
+                builder.applySetting(HBM2DDL_AUTO, System.getProperty("userservice.fastStart.schemaAction", "none"));
+                builder.applySetting(ALLOW_JDBC_METADATA_ACCESS, "false");
+            }
+            if (!RoutingConnectionProvider.replicaUrls().isEmpty()) {
+                builder.applySetting(CONNECTION_PROVIDER, RoutingConnectionProvider.class.getName());
+            }
+            if (Boolean.getBoolean("userservice.metrics.enabled")) {
+                // statistics cost a counter update per query and entity load, so they follow the metrics flag
+                builder.applySetting(GENERATE_STATISTICS, "true");
+            }
+            builder.applySettings(systemOverrides());
+            if (PartitionManager.enabled()) {
+                // hbm2ddl can neither create nor update a partitioned table
+                builder.applySetting(HBM2DDL_AUTO, "none");
+            }
+            if (!builder.getSettings().containsKey(MAXIMUM_POOL_SIZE)) {
+                builder.applySetting(MAXIMUM_POOL_SIZE, defaultPoolSize());
+            }
+            registry = builder.build();
+            long registryDone = System.nanoTime();
+
             Metadata metadata = new MetadataSources(registry)
                     .addAnnotatedClass(User.class)
                     .getMetadataBuilder()
                     .build();
-            SESSION_FACTORY = metadata.getSessionFactoryBuilder().build();
+            addExpressionIndexes(metadata);
+            long metadataDone = System.nanoTime();
 
-            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-                log.info("Shutting down SessionFactory");
-                SESSION_FACTORY.close();
-            }));
+            SessionFactory built = metadata.getSessionFactoryBuilder().build();
+            if (PartitionManager.enabled()) {
+                startPartitioning(built);
+            }
+            alignUserSequence(built);
+            long done = System.nanoTime();
+
+            bootstrapTimings = new BootstrapTimings((registryDone - start) / 1_000_000,
+                    (metadataDone - registryDone) / 1_000_000, (done - metadataDone) / 1_000_000);
+            log.info("SessionFactory started in {} ms ({}), schema action={}, connection pool max size={}",
+                    bootstrapTimings.totalMillis(), bootstrapTimings,
+                    builder.getSettings().get(HBM2DDL_AUTO), builder.getSettings().get(MAXIMUM_POOL_SIZE));
+            registerShutdownHook();
+            return built;
         } catch (Exception e) {
-            throw new ExceptionInInitializerError("Failed to initialize SessionFactory: " + e.getMessage());
+            if (registry != null) {
+                StandardServiceRegistryBuilder.destroy(registry);
+            }
+            throw new IllegalStateException("Failed to initialize SessionFactory: " + e.getMessage(), e);
         }
     }
 
-    private HibernateUtil() {}
+    // JPA @Index cannot express functional indexes; varchar_pattern_ops lets "lower(name) like 'x%'" use the index.
+    // No drop strings: schema update would otherwise rebuild the index on every start, and dropping the table drops it.
+    private static void addExpressionIndexes(Metadata metadata) {
+        metadata.getDatabase().addAuxiliaryDatabaseObject(new SimpleAuxiliaryDatabaseObject(
+                Set.of(PostgreSQLDialect.class.getName()), null, null,
+                new String[] {"create index if not exists idx_users_lower_name on users (lower(name) varchar_pattern_ops)"},
+                new String[0]));
+    }
 
-    public static SessionFactory getSessionFactory() { return SESSION_FACTORY; }
+    private static void startPartitioning(SessionFactory built) {
+        PartitionManager partitions = PartitionManager.fromSystemProperties(built);
+        try {
+            if (partitions.createSchema()) {
+                PartitionManager.backfillTable().ifPresent(partitions::backfill);
+                partitions.maintain();
+                partitions.start();
+                registerShutdownAction(partitions::close);
+            }
+        } catch (RuntimeException e) {
+            built.close();
+            throw e;
+        }
+    }
+
+    // Rows written while ids came from an identity column are above users_seq; move the sequence past them once.
+    // The pooled optimizer treats a sequence value as the top of its block, so the next block starts at max(id) + 1.
+    private static void alignUserSequence(SessionFactory built) {
+        if (!(built.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect() instanceof PostgreSQLDialect)) {
+            return;
+        }
+        try {
+            built.inTransaction(session -> session.doWork(connection -> {
+                try (Statement statement = connection.createStatement();
+                     ResultSet moved = statement.executeQuery(ALIGN_USER_SEQUENCE_SQL)) {
+                    if (moved.next()) {
+                        log.info("Moved users_seq to {} past existing user ids", moved.getLong(1));
+                    }
+                }
+            }));
+        } catch (RuntimeException e) {
+            log.warn("Could not align users_seq with existing user ids: {}", e.getMessage());
+        }
+    }
+
+    private static void registerShutdownHook() {
+        if (!shutdownHookRegistered) {
+            Runtime.getRuntime().addShutdownHook(new Thread(HibernateUtil::shutdown, "hibernate-shutdown"));
+            shutdownHookRegistered = true;
+        }
+    }
+
+    // -Dhibernate.* system properties win over hibernate.cfg.xml
+    private static Map<String, Object> systemOverrides() {
+        Map<String, Object> overrides = new HashMap<>();
+        System.getProperties().forEach((key, value) -> {
+            if (key.toString().startsWith("hibernate.")) {
+                overrides.put(key.toString(), value);
+            }
+        });
+        return overrides;
+    }
+
+    private static String defaultPoolSize() {
+        return String.valueOf(Runtime.getRuntime().availableProcessors() * 2 + 1);
+    }
 }
@@ -0,0 +1,45 @@
+package com.example.userservice.util;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.HibernateMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public final class Metrics {
+    private static final Logger log = LoggerFactory.getLogger(Metrics.class);
+    private static final PrometheusMeterRegistry REGISTRY = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+
+    private Metrics() {}
+
+    public static PrometheusMeterRegistry registry() { return REGISTRY; }
+
+    /** Prometheus text exposition of every registered meter. */
+    public static String scrape() { return REGISTRY.scrape(); }
+
+    /**
+     * Binds Hibernate statistics (statements, entity loads, cache hits) and,
+     * when the pool is HikariCP, connection acquisition time and pool usage.
+     */
+    public static void bindSessionFactory(SessionFactory sessionFactory, MeterRegistry registry) {
+        HibernateMetrics.monitor(registry, sessionFactory, "user-service", Tags.empty());
+        ConnectionProvider provider = sessionFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(ConnectionProvider.class);
+        if (provider != null && provider.isUnwrappableAs(HikariDataSource.class)) {
+            provider.unwrap(HikariDataSource.class).setMetricRegistry(registry);
+            if (provider.isUnwrappableAs(RoutingConnectionProvider.class)) {
+                provider.unwrap(RoutingConnectionProvider.class).replicaDataSources()
+                        .forEach(replica -> replica.setMetricRegistry(registry));
+            }
+        } else {
+            log.warn("Connection pool metrics are not available for {}", provider);
+        }
+    }
+}
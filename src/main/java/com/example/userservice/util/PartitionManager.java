@@ -0,0 +1,385 @@
+package com.example.userservice.util;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.jdbc.ReturningWork;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Declarative range partitioning of {@code users} on {@code created_at}, one partition per month (PostgreSQL 13+).
+ * With {@code -Duserservice.partitioning.enabled=true} this class owns the users DDL instead of hbm2ddl: it creates
+ * the partitioned table, keeps {@code monthsAhead} future partitions in place and retires whole months at once.
+ * <p>
+ * A unique index on a partitioned table must contain the partition key, so email uniqueness is enforced by the
+ * {@code user_emails} table, maintained by a trigger; its primary key keeps the name {@code uk_users_email}.
+ * The same table holds each row's id under {@code uk_users_id}, because the primary key {@code (id, created_at)}
+ * alone would accept one id twice with different creation times.
+ */
+public final class PartitionManager implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(PartitionManager.class);
+    private static final String ENABLED = "userservice.partitioning.enabled";
+    private static final String BACKFILL_FROM = "userservice.partitioning.backfillFrom";
+    private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final Pattern PARTITION_NAME = Pattern.compile("users_p(\\d{4})(\\d{2})");
+
+    // same columns and types hbm2ddl generates for User; the primary key has to include created_at
+    private static final List<String> SCHEMA = List.of(
+            "create sequence if not exists users_seq start with 1 increment by 50",
+            """
+            create table users (
+                id bigint not null,
+                name varchar(100) not null,
+                email varchar(150) not null,
+                age integer,
+                created_at timestamp(6) not null,
+                version bigint default 0 not null,
+                primary key (id, created_at)
+            ) partition by range (created_at)""",
+            // rows outside every monthly range land here instead of failing the insert
+            "create table users_default partition of users default",
+            "create index idx_users_email on users (email)",
+            "create index idx_users_created_at on users (created_at)",
+            "create index idx_users_age on users (age)",
+            "create index idx_users_lower_name on users (lower(name) varchar_pattern_ops)",
+            """
+            create table if not exists user_emails (
+                email varchar(150) not null constraint uk_users_email primary key,
+                id bigint not null constraint uk_users_id unique,
+                created_at timestamp(6) not null
+            )""",
+            "create index if not exists idx_user_emails_created_at on user_emails (created_at)",
+            """
+            create or replace function users_email_guard() returns trigger language plpgsql as $$
+            begin
+                if tg_op = 'INSERT' then
+                    insert into user_emails (email, id, created_at) values (new.email, new.id, new.created_at);
+                elsif tg_op = 'UPDATE' then
+                    update user_emails set email = new.email, id = new.id where email = old.email;
+                else
+                    delete from user_emails where email = old.email;
+                end if;
+                return null;
+            end $$""",
+            """
+            create trigger users_email_guard after insert or delete or update of email, id on users
+                for each row execute function users_email_guard()""");
+
+    // index names are schema-wide: a renamed plain users table still owns these until they are renamed too
+    private static final List<String> SCHEMA_INDEXES = List.of("users_pkey", "idx_users_email", "idx_users_created_at",
+            "idx_users_age", "idx_users_lower_name", "uk_users_email", "uk_users_id");
+
+    /** One monthly partition covering {@code [from, to)}. */
+    public record Partition(String name, LocalDate from, LocalDate to) {
+        static Partition of(YearMonth month) {
+            return new Partition("users_p" + month.format(SUFFIX), month.atDay(1), month.plusMonths(1).atDay(1));
+        }
+
+        static Optional<Partition> parse(String name) {
+            Matcher matcher = PARTITION_NAME.matcher(name);
+            if (!matcher.matches()) {
+                return Optional.empty();
+            }
+            return Optional.of(of(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)))));
+        }
+    }
+
+    private final SessionFactory sessionFactory;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final boolean dropExpired;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param retentionMonths whole months to keep before the current one; 0 keeps everything
+     * @param dropExpired drop expired partitions instead of only detaching them
+     */
+    public PartitionManager(SessionFactory sessionFactory, int monthsAhead, int retentionMonths, boolean dropExpired) {
+        if (monthsAhead < 0 || retentionMonths < 0) {
+            throw new IllegalArgumentException("Month counts must not be negative");
+        }
+        this.sessionFactory = sessionFactory;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.dropExpired = dropExpired;
+    }
+
+    public static boolean enabled() {
+        return Boolean.getBoolean(ENABLED);
+    }
+
+    /** Table named by {@code userservice.partitioning.backfillFrom} whose history is about to be copied into users. */
+    public static Optional<String> backfillTable() {
+        return Optional.ofNullable(System.getProperty(BACKFILL_FROM)).filter(table -> !table.isBlank());
+    }
+
+    public static PartitionManager fromSystemProperties(SessionFactory sessionFactory) {
+        return new PartitionManager(sessionFactory,
+                Integer.getInteger("userservice.partitioning.monthsAhead", 3),
+                Integer.getInteger("userservice.partitioning.retentionMonths", 0),
+                "drop".equals(System.getProperty("userservice.partitioning.retentionAction", "detach")));
+    }
+
+    /**
+     * Creates the partitioned table, its indexes and the email guard when {@code users} does not exist yet.
+     * Returns false when a plain {@code users} table is already there; it is left untouched.
+     */
+    public boolean createSchema() {
+        return inTransaction(connection -> {
+            String kind = tableKind(connection);
+            if ("p".equals(kind)) {
+                return true;
+            }
+            if (kind != null) {
+                log.warn("Table users exists and is not partitioned; migrate it before enabling partitioning");
+                return false;
+            }
+            List<String> taken = takenIndexNames(connection);
+            if (!taken.isEmpty()) {
+                throw new IllegalStateException("Cannot create partitioned users: index names " + taken
+                        + " belong to another table; rename them first (see the migration steps in ReadMe)");
+            }
+            try (Statement statement = connection.createStatement()) {
+                for (String ddl : SCHEMA) {
+                    statement.execute(ddl);
+                }
+            }
+            log.info("Created users partitioned by month on created_at");
+            return true;
+        });
+    }
+
+    /** Runs {@link #maintain()} once a day on a daemon thread until {@link #close()}. */
+    public synchronized void start() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(ThreadPools.daemonThreads("partition-maintenance"));
+            scheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    maintain();
+                } catch (RuntimeException e) {
+                    log.error("Partition maintenance failed", e);
+                }
+            }, 1, 1, TimeUnit.DAYS);
+        }
+    }
+
+    /** Creates the upcoming partitions and applies the retention policy. */
+    public void maintain() {
+        YearMonth current = YearMonth.now();
+        createPartitions(current);
+        if (retentionMonths > 0) {
+            LocalDate cutoff = current.minusMonths(retentionMonths).atDay(1);
+            if (dropExpired) {
+                dropPartitionsBefore(cutoff);
+            } else {
+                detachPartitionsBefore(cutoff);
+            }
+        }
+    }
+
+    /** Creates the missing partitions for {@code from} and the {@code monthsAhead} months after it. */
+    public List<Partition> createPartitions(YearMonth from) {
+        return create(missing(partitions(), from, monthsAhead));
+    }
+
+    /**
+     * Creates the missing partitions from {@code from} through {@code monthsAhead} months after the current one.
+     * Run it before copying older rows into users, otherwise they all land in {@code users_default}.
+     */
+    public List<Partition> backfill(YearMonth from) {
+        YearMonth current = YearMonth.now();
+        return create(missing(partitions(), from, monthsThrough(from, current, monthsAhead)));
+    }
+
+    /**
+     * {@link #backfill(YearMonth) Backfills} from the month of the oldest {@code created_at} in {@code table},
+     * e.g. the renamed plain {@code users_old}. Creates nothing when the table is empty.
+     */
+    public List<Partition> backfill(String table) {
+        if (!TABLE_NAME.matcher(table).matches()) {
+            throw new IllegalArgumentException("Invalid table name: " + table);
+        }
+        Optional<LocalDate> oldest = inTransaction(connection -> {
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("select min(created_at) from " + table)) {
+                rs.next();
+                return Optional.ofNullable(rs.getObject(1, LocalDateTime.class)).map(LocalDateTime::toLocalDate);
+            }
+        });
+        if (oldest.isEmpty()) {
+            log.info("Table {} is empty, no partitions to backfill", table);
+            return List.of();
+        }
+        List<Partition> created = backfill(YearMonth.from(oldest.get()));
+        log.info("Backfilled {} partitions from {} for rows of {}", created.size(), YearMonth.from(oldest.get()), table);
+        return created;
+    }
+
+    private List<Partition> create(List<Partition> partitions) {
+        List<Partition> created = new ArrayList<>();
+        for (Partition partition : partitions) {
+            try {
+                inTransaction(connection -> {
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute("create table if not exists " + partition.name() + " partition of users"
+                                + " for values from ('" + partition.from() + "') to ('" + partition.to() + "')");
+                    }
+                    return null;
+                });
+                created.add(partition);
+                log.info("Created partition {} for [{}, {})", partition.name(), partition.from(), partition.to());
+            } catch (RuntimeException e) {
+                // typically rows for that month already sit in users_default
+                log.error("Failed to create partition {}", partition.name(), e);
+            }
+        }
+        return created;
+    }
+
+    /** Monthly partitions currently attached to {@code users}, oldest first. */
+    public List<Partition> partitions() {
+        return inTransaction(connection -> {
+            List<Partition> partitions = new ArrayList<>();
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "select c.relname from pg_inherits i join pg_class c on c.oid = i.inhrelid"
+                            + " where i.inhparent = 'users'::regclass");
+                 ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    Partition.parse(rs.getString(1)).ifPresent(partitions::add);
+                }
+            }
+            partitions.sort(Comparator.comparing(Partition::from));
+            return partitions;
+        });
+    }
+
+    /**
+     * Detaches every partition that ends on or before {@code cutoff}. Detached tables keep their rows and can be
+     * archived or attached again; their emails are released for reuse.
+     */
+    public List<Partition> detachPartitionsBefore(LocalDate cutoff) {
+        return retire(cutoff, false);
+    }
+
+    /** Detaches and drops every partition that ends on or before {@code cutoff}. */
+    public List<Partition> dropPartitionsBefore(LocalDate cutoff) {
+        return retire(cutoff, true);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private List<Partition> retire(LocalDate cutoff, boolean drop) {
+        List<Partition> retired = new ArrayList<>();
+        for (Partition partition : expired(partitions(), cutoff)) {
+            // detaching needs an exclusive lock on users, so the email cleanup runs in its own transaction
+            inTransaction(connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("alter table users detach partition " + partition.name());
+                }
+                return null;
+            });
+            inTransaction(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "delete from user_emails where created_at >= ? and created_at < ?")) {
+                    statement.setObject(1, partition.from().atStartOfDay());
+                    statement.setObject(2, partition.to().atStartOfDay());
+                    statement.executeUpdate();
+                }
+                if (drop) {
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute("drop table " + partition.name());
+                    }
+                }
+                return null;
+            });
+            retired.add(partition);
+            log.info("{} partition {} for [{}, {})", drop ? "Dropped" : "Detached", partition.name(),
+                    partition.from(), partition.to());
+        }
+        return retired;
+    }
+
+    static List<Partition> missing(Collection<Partition> existing, YearMonth from, int monthsAhead) {
+        Set<String> names = existing.stream().map(Partition::name).collect(Collectors.toSet());
+        List<Partition> missing = new ArrayList<>();
+        for (int i = 0; i <= monthsAhead; i++) {
+            Partition partition = Partition.of(from.plusMonths(i));
+            if (!names.contains(partition.name())) {
+                missing.add(partition);
+            }
+        }
+        return missing;
+    }
+
+    // months after from that reach monthsAhead past current; a from in the future only gets its own monthsAhead
+    static int monthsThrough(YearMonth from, YearMonth current, int monthsAhead) {
+        return (int) Math.max(0, from.until(current, ChronoUnit.MONTHS)) + monthsAhead;
+    }
+
+    static List<Partition> expired(Collection<Partition> existing, LocalDate cutoff) {
+        return existing.stream()
+                .filter(partition -> !partition.to().isAfter(cutoff))
+                .sorted(Comparator.comparing(Partition::from))
+                .toList();
+    }
+
+    // user_emails survives a dropped users table and may legitimately own uk_users_email and uk_users_id
+    private static List<String> takenIndexNames(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("""
+                select c.relname from pg_class c join pg_index i on i.indexrelid = c.oid
+                where c.relname::text = any(?) and c.relnamespace = current_schema()::regnamespace
+                  and i.indrelid is distinct from to_regclass('user_emails')::oid
+                order by c.relname""")) {
+            statement.setArray(1, connection.createArrayOf("text", SCHEMA_INDEXES.toArray()));
+            List<String> taken = new ArrayList<>();
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    taken.add(rs.getString(1));
+                }
+            }
+            return taken;
+        }
+    }
+
+    // relkind of users: 'p' partitioned, 'r' plain table, null when absent
+    private static String tableKind(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "select relkind from pg_class where oid = to_regclass('users')");
+             ResultSet rs = statement.executeQuery()) {
+            return rs.next() ? rs.getString(1) : null;
+        }
+    }
+
+    private <T> T inTransaction(ReturningWork<T> work) {
+        return sessionFactory.fromTransaction(session -> session.doReturningWork(work));
+    }
+}
@@ -0,0 +1,4 @@
+package com.example.userservice.util;
+
+public record PoolStats(int active, int idle, int total, int threadsAwaiting, int maximumPoolSize) {
+}
@@ -0,0 +1,120 @@
+package com.example.userservice.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-local hint read by {@link RoutingConnectionProvider} when a session acquires its connection.
+ * Open the scope before the session so the first statement (or {@code beginTransaction}) sees it.
+ */
+public final class ReadRouting {
+    private static final ThreadLocal<Boolean> REPLICA = ThreadLocal.withInitial(() -> Boolean.FALSE);
+    private static final ThreadLocal<Boolean> PRIMARY = ThreadLocal.withInitial(() -> Boolean.FALSE);
+    private static final long NO_WRITE = Long.MIN_VALUE;
+    // a holder rather than a value, so work done for this thread elsewhere can share its window (see Context)
+    private static final ThreadLocal<AtomicLong> LAST_WRITE_NANOS = ThreadLocal.withInitial(() -> new AtomicLong(NO_WRITE));
+    private static volatile long stickyNanos;
+
+    private ReadRouting() {}
+
+    /** Routes connections acquired on this thread to a read replica until the scope is closed. */
+    public static Scope replica() {
+        if (PRIMARY.get()) {
+            return () -> {};
+        }
+        Boolean previous = REPLICA.get();
+        REPLICA.set(Boolean.TRUE);
+        return () -> REPLICA.set(previous);
+    }
+
+    /** Keeps this thread on the primary until the scope is closed, even inside {@link #replica()} scopes. */
+    public static Scope primary() {
+        Boolean previousPrimary = PRIMARY.get();
+        Boolean previousReplica = REPLICA.get();
+        PRIMARY.set(Boolean.TRUE);
+        REPLICA.set(Boolean.FALSE);
+        return () -> {
+            REPLICA.set(previousReplica);
+            PRIMARY.set(previousPrimary);
+        };
+    }
+
+    public static boolean isReplicaRequested() {
+        return REPLICA.get();
+    }
+
+    /** Called after a write transaction committed; starts this thread's read-your-writes window. */
+    public static void recordWrite() {
+        record(LAST_WRITE_NANOS.get());
+    }
+
+    /** This thread's routing, to be {@link Context#apply() applied} by a task it hands to another thread. */
+    public static Context capture() {
+        return new Context(PRIMARY.get(), LAST_WRITE_NANOS.get());
+    }
+
+    /**
+     * Whether reads on this thread go to the primary even inside {@link #replica()}: in a {@link #primary()} scope,
+     * or within the read-your-writes window after this thread's last write.
+     */
+    public static boolean primaryRequired() {
+        return PRIMARY.get() || withinStickyWindow();
+    }
+
+    static boolean withinStickyWindow() {
+        long window = stickyNanos;
+        long lastWrite = LAST_WRITE_NANOS.get().get();
+        return window > 0 && lastWrite != NO_WRITE && System.nanoTime() - lastWrite < window;
+    }
+
+    // set by RoutingConnectionProvider from userservice.replica.stickyMillis
+    static void stickyWindow(long nanos) {
+        stickyNanos = nanos;
+    }
+
+    private static void record(AtomicLong lastWrite) {
+        lastWrite.accumulateAndGet(System.nanoTime(), Math::max);
+    }
+
+    /**
+     * Routing of the thread that called {@link #capture()}. Applied on another thread, reads there follow the
+     * captured {@link #primary()} scope and read-your-writes window, and writes committed there open the window
+     * for the captured thread as well.
+     */
+    public static final class Context {
+        private final boolean primary;
+        private final AtomicLong lastWrite;
+
+        private Context(boolean primary, AtomicLong lastWrite) {
+            this.primary = primary;
+            this.lastWrite = lastWrite;
+        }
+
+        /** Routes the current thread as the captured one until the scope is closed. */
+        public Scope apply() {
+            Boolean previousPrimary = PRIMARY.get();
+            Boolean previousReplica = REPLICA.get();
+            AtomicLong previousWrite = LAST_WRITE_NANOS.get();
+            LAST_WRITE_NANOS.set(lastWrite);
+            if (primary) {
+                PRIMARY.set(Boolean.TRUE);
+                REPLICA.set(Boolean.FALSE);
+            }
+            return () -> {
+                LAST_WRITE_NANOS.set(previousWrite);
+                REPLICA.set(previousReplica);
+                PRIMARY.set(previousPrimary);
+            };
+        }
+
+        /** Opens the captured thread's window for a write another thread committed on its behalf. */
+        public void recordWrite() {
+            record(lastWrite);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.userservice.util;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
+
+/**
+ * Picks the least-loaded replica; replicas with equal load are taken in round-robin order.
+ */
+public final class ReplicaSelector<T> {
+    private final List<T> replicas;
+    private final ToIntFunction<T> load;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaSelector(List<T> replicas, ToIntFunction<T> load) {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("At least one replica is required");
+        }
+        this.replicas = List.copyOf(replicas);
+        this.load = load;
+    }
+
+    public T select() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        T best = null;
+        int bestLoad = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            T candidate = replicas.get((start + i) % size);
+            int candidateLoad = load.applyAsInt(candidate);
+            if (best == null || candidateLoad < bestLoad) {
+                best = candidate;
+                bestLoad = candidateLoad;
+            }
+        }
+        return best;
+    }
+
+    public List<T> replicas() {
+        return replicas;
+    }
+}
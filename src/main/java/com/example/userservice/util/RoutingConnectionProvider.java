@@ -0,0 +1,98 @@
+package com.example.userservice.util;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.hibernate.HibernateException;
+import org.hibernate.hikaricp.internal.HikariCPConnectionProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HikariCP connection provider that sends connections requested inside {@link ReadRouting#replica()}
+ * to read-only replica pools ({@code -Duserservice.replica.urls=url1,url2}). Everything else,
+ * including bootstrap, goes to the primary pool configured in {@code hibernate.cfg.xml}.
+ * <p>
+ * With {@code -Duserservice.replica.stickyMillis=N} reads of a thread stay on the primary for N ms after
+ * that thread committed a write ({@link ReadRouting#recordWrite()}), so a caller can read its own writes
+ * despite replica lag without pulling every other caller's reads onto the primary.
+ */
+public class RoutingConnectionProvider extends HikariCPConnectionProvider {
+    private static final Logger log = LoggerFactory.getLogger(RoutingConnectionProvider.class);
+    public static final String REPLICA_URLS = "userservice.replica.urls";
+    public static final String STICKY_MILLIS = "userservice.replica.stickyMillis";
+
+    private final List<HikariCPConnectionProvider> replicaProviders = new ArrayList<>();
+    private ReplicaSelector<Replica> selector;
+
+    @Override
+    public void configure(Map<String, Object> settings) throws HibernateException {
+        super.configure(settings);
+        String poolName = String.valueOf(settings.getOrDefault("hibernate.hikari.poolName", "user-service"));
+        List<Replica> replicas = new ArrayList<>();
+        for (String url : replicaUrls()) {
+            Map<String, Object> replicaSettings = new HashMap<>(settings);
+            replicaSettings.remove("jakarta.persistence.jdbc.url");
+            replicaSettings.remove("javax.persistence.jdbc.url");
+            replicaSettings.put("hibernate.connection.url", url);
+            replicaSettings.put("hibernate.hikari.readOnly", "true");
+            replicaSettings.put("hibernate.hikari.poolName", poolName + "-replica-" + (replicas.size() + 1));
+            HikariCPConnectionProvider provider = new HikariCPConnectionProvider();
+            provider.configure(replicaSettings);
+            replicaProviders.add(provider);
+            replicas.add(new Replica(url, provider, provider.unwrap(HikariDataSource.class)));
+        }
+        selector = replicas.isEmpty() ? null : new ReplicaSelector<>(replicas, Replica::load);
+        long stickyNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong(STICKY_MILLIS, 0));
+        ReadRouting.stickyWindow(stickyNanos);
+        log.info("Read routing: {} replica(s), read-your-writes window {} ms",
+                replicas.size(), TimeUnit.NANOSECONDS.toMillis(stickyNanos));
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (selector != null && ReadRouting.isReplicaRequested() && !ReadRouting.withinStickyWindow()) {
+            Replica replica = selector.select();
+            try {
+                return replica.provider().getConnection();
+            } catch (SQLException e) {
+                log.warn("Replica {} is unavailable, reading from primary: {}", replica.url(), e.getMessage());
+            }
+        }
+        return super.getConnection();
+    }
+
+    @Override
+    public void stop() {
+        replicaProviders.forEach(HikariCPConnectionProvider::stop);
+        super.stop();
+    }
+
+    public List<HikariDataSource> replicaDataSources() {
+        return selector == null ? List.of() : selector.replicas().stream().map(Replica::dataSource).toList();
+    }
+
+    static List<String> replicaUrls() {
+        String urls = System.getProperty(REPLICA_URLS, "");
+        // split only before "jdbc:" so multi-host URLs (jdbc:postgresql://h1,h2/db) stay intact
+        return Arrays.stream(urls.split(",(?=\\s*jdbc:)"))
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .toList();
+    }
+
+    private record Replica(String url, HikariCPConnectionProvider provider, HikariDataSource dataSource) {
+        int load() {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            return pool == null ? 0 : pool.getActiveConnections() + pool.getThreadsAwaitingConnection();
+        }
+    }
+}
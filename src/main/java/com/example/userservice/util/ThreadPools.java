@@ -0,0 +1,51 @@
+package com.example.userservice.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class ThreadPools {
+    private static final Logger log = LoggerFactory.getLogger(ThreadPools.class);
+
+    private ThreadPools() {}
+
+    /**
+     * Virtual-thread-per-task executor when running on Java 21+,
+     * otherwise a fixed pool of {@code fallbackThreads} platform threads.
+     */
+    public static ExecutorService newTaskExecutor(String name, int fallbackThreads) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            log.info("Using virtual threads for {}", name);
+            return (ExecutorService) factory.invoke(null);
+        } catch (NoSuchMethodException e) {
+            log.info("Virtual threads unavailable, using {} platform threads for {}", fallbackThreads, name);
+            return Executors.newFixedThreadPool(fallbackThreads, daemonThreads(name));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create executor for " + name, e);
+        }
+    }
+
+    public static boolean virtualThreadsAvailable() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    public static ThreadFactory daemonThreads(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
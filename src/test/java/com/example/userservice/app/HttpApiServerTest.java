@@ -0,0 +1,186 @@
+package com.example.userservice.app;
+
+import com.example.userservice.exception.DaoException;
+import com.example.userservice.exception.DuplicateEmailException;
+import com.example.userservice.model.User;
+import com.example.userservice.service.AsyncUserService;
+import com.example.userservice.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HttpApiServerTest {
+
+    @Mock
+    private UserService userService;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private HttpApiServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) server.close();
+    }
+
+    @Test
+    void getUser_existingId_returnsJson() throws Exception {
+        User user = new User("John", "john@example.com", 30);
+        user.setId(1L);
+        when(userService.getUserById(1L)).thenReturn(Optional.of(user));
+        start(4, Duration.ofSeconds(5));
+
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/users/1")).GET());
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("\"email\":\"john@example.com\""));
+    }
+
+    @Test
+    void getUser_missingId_returns404() throws Exception {
+        when(userService.getUserById(2L)).thenReturn(Optional.empty());
+        start(4, Duration.ofSeconds(5));
+
+        assertEquals(404, send(HttpRequest.newBuilder(uri("/users/2")).GET()).statusCode());
+    }
+
+    @Test
+    void createUser_duplicateEmail_returns409() throws Exception {
+        when(userService.createUser("John", "john@example.com", 30))
+                .thenThrow(new DuplicateEmailException("Email must be unique: john@example.com"));
+        start(4, Duration.ofSeconds(5));
+
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/users"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"John\",\"email\":\"john@example.com\",\"age\":30}")));
+
+        assertEquals(409, response.statusCode());
+    }
+
+    @Test
+    void patchUser_ageOutsideIntRange_returns400() throws Exception {
+        start(4, Duration.ofSeconds(5));
+
+        for (String age : List.of("4294967326", "1e10", "-2147483649")) {
+            HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/users/1"))
+                    .PUT(HttpRequest.BodyPublishers.ofString("{\"age\":" + age + "}")));
+
+            assertEquals(400, response.statusCode(), age);
+        }
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void listUsers_streamsAllPages() throws Exception {
+        User user = new User("John", "john@example.com", 30);
+        user.setId(1L);
+        when(userService.getAllUsers(null, 500)).thenReturn(List.of(user));
+        start(4, Duration.ofSeconds(5));
+
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/users")).GET());
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().startsWith("[{\"id\":1,"));
+        assertTrue(response.body().endsWith("}]"));
+    }
+
+    @Test
+    void listUsers_firstPageFails_returns500() throws Exception {
+        when(userService.getAllUsers(null, 500)).thenThrow(new DaoException("Failed to read users"));
+        start(4, Duration.ofSeconds(5));
+
+        assertEquals(500, send(HttpRequest.newBuilder(uri("/users")).GET()).statusCode());
+    }
+
+    @Test
+    void listUsers_laterPageFails_dropsConnection() throws Exception {
+        List<User> firstPage = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            User user = new User("User" + id, "user" + id + "@example.com", 30);
+            user.setId(id);
+            firstPage.add(user);
+        }
+        when(userService.getAllUsers(null, 500)).thenReturn(firstPage);
+        when(userService.getAllUsers(500L, 500)).thenThrow(new DaoException("Failed to read users"));
+        start(4, Duration.ofSeconds(5));
+
+        assertThrows(IOException.class, () -> send(HttpRequest.newBuilder(uri("/users")).GET()));
+    }
+
+    @Test
+    void unexpectedException_returns500() throws Exception {
+        when(userService.getUserById(1L)).thenThrow(new IllegalStateException("boom"));
+        start(4, Duration.ofSeconds(5));
+
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/users/1")).GET());
+
+        assertEquals(500, response.statusCode());
+        assertEquals("{\"error\":\"Internal server error\"}", response.body());
+    }
+
+    @Test
+    void slowCall_returns504() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(userService.getUserById(1L)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.empty();
+        });
+        start(4, Duration.ofMillis(100));
+
+        assertEquals(504, send(HttpRequest.newBuilder(uri("/users/1")).GET()).statusCode());
+        release.countDown();
+    }
+
+    @Test
+    void saturatedServer_returns503() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userService.deleteUser(any())).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return true;
+        });
+        start(1, Duration.ofSeconds(5));
+
+        CompletableFuture<HttpResponse<String>> first = client.sendAsync(
+                HttpRequest.newBuilder(uri("/users/1")).DELETE().build(), HttpResponse.BodyHandlers.ofString());
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        HttpResponse<String> rejected = send(HttpRequest.newBuilder(uri("/users/2")).DELETE());
+        release.countDown();
+
+        assertEquals(503, rejected.statusCode());
+        assertEquals(204, first.get(5, TimeUnit.SECONDS).statusCode());
+    }
+
+    private void start(int maxInFlight, Duration timeout) throws Exception {
+        AsyncUserService asyncService = new AsyncUserService(userService, Executors.newCachedThreadPool(), 4);
+        server = HttpApiServer.start(0, asyncService, maxInFlight, timeout);
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.port() + path);
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
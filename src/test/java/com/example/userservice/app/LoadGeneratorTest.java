@@ -0,0 +1,108 @@
+package com.example.userservice.app;
+
+import com.example.userservice.app.LoadGenerator.Config;
+import com.example.userservice.app.LoadGenerator.Distribution;
+import com.example.userservice.app.LoadGenerator.Operation;
+import com.example.userservice.dao.InMemoryUserDao;
+import com.example.userservice.exception.DaoException;
+import com.example.userservice.model.User;
+import com.example.userservice.service.RetryPolicy;
+import com.example.userservice.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadGeneratorTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void parseMix_skipsZeroWeightsAndRejectsMalformedParts() {
+        assertEquals(Map.of(Operation.READ, 90, Operation.UPDATE, 10),
+                LoadGenerator.parseMix("read=90, update=10, delete=0"));
+        assertThrows(IllegalArgumentException.class, () -> LoadGenerator.parseMix("read"));
+        assertThrows(IllegalArgumentException.class, () -> LoadGenerator.parseMix("scan=1"));
+        assertThrows(IllegalArgumentException.class, () -> LoadGenerator.parseMix("read=-1"));
+    }
+
+    @Test
+    void zipfian_favoursLowRanksAndStaysInRange() {
+        ZipfianGenerator zipfian = new ZipfianGenerator(1000, 0.99);
+        int[] counts = new int[1000];
+        for (int i = 0; i < 100_000; i++) {
+            counts[(int) zipfian.next(ThreadLocalRandom.current().nextDouble())]++;
+        }
+
+        int top100 = 0;
+        for (int i = 0; i < 100; i++) {
+            top100 += counts[i];
+        }
+        assertTrue(counts[0] > counts[1] && counts[1] > counts[10], "rank 0 should be the most popular");
+        assertTrue(top100 > 60_000, "top 10% of keys should get most draws, got " + top100);
+    }
+
+    @Test
+    void run_mixedWorkload_reportsEveryOperationAndWritesCsvAndJson() throws Exception {
+        InMemoryUserDao store = new InMemoryUserDao(4, 16);
+        UserService service = new UserService(store, new RetryPolicy(1000, Duration.ZERO, Duration.ZERO));
+        Config config = new Config(4, false, Duration.ofMillis(100), Duration.ofMillis(400), Duration.ofMillis(200),
+                50, Distribution.ZIPFIAN, 0.99, LoadGenerator.parseMix("read=70,update=20,create=5,delete=5"),
+                0, "test");
+
+        LoadReport report = new LoadGenerator(service, config).run();
+
+        assertEquals(List.of("read", "update", "create", "delete", "all"),
+                report.rows().stream().map(LoadReport.Row::operation).toList());
+        LoadReport.Row all = report.rows().get(4);
+        assertTrue(all.count() > 0);
+        assertEquals(0, all.errors());
+        assertEquals(all.count(), report.rows().subList(0, 4).stream().mapToLong(LoadReport.Row::count).sum());
+        assertTrue(all.p50Millis() <= all.p99Millis() && all.p99Millis() <= all.maxMillis());
+        assertTrue(store.size() >= 50);
+
+        Path csv = dir.resolve("runs.csv");
+        report.write(csv);
+        report.write(csv);
+        List<String> lines = Files.readAllLines(csv);
+        assertEquals(LoadReport.CSV_HEADER, lines.get(0));
+        assertEquals(11, lines.size());
+        assertTrue(lines.get(1).startsWith("test,4,false,zipfian,read=70 update=20 create=5 delete=5,read,"));
+
+        Path json = dir.resolve("run.json");
+        report.write(json);
+        assertTrue(Files.readString(json).startsWith("{\"label\":\"test\",\"threads\":4,"));
+        assertThrows(IllegalArgumentException.class, () -> report.write(dir.resolve("run.txt")));
+    }
+
+    @Test
+    void run_failingCalls_reportErrorLatencySeparately() throws Exception {
+        InMemoryUserDao store = new InMemoryUserDao(4, 16) {
+            @Override
+            public Optional<User> findById(Long id) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                throw new DaoException("Failed to read user by id=" + id);
+            }
+        };
+        UserService service = new UserService(store, RetryPolicy.defaults());
+        Config config = new Config(2, false, Duration.ZERO, Duration.ofMillis(200), Duration.ofMillis(200),
+                10, Distribution.UNIFORM, 0.99, LoadGenerator.parseMix("read=1"), 0, "errors");
+
+        LoadReport.Row read = new LoadGenerator(service, config).run().rows().get(0);
+
+        assertEquals(0, read.count());
+        assertTrue(read.errors() > 0);
+        assertTrue(read.errorMaxMillis() >= 1, "error latency should be recorded, got " + read.errorMaxMillis());
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.userservice.app;
+
+import com.example.userservice.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserFileFormatTest {
+
+    @Test
+    void forPath_knownExtensions_returnsFormat() {
+        assertEquals(UserFileFormat.CSV, UserFileFormat.forPath(Path.of("users.CSV")));
+        assertEquals(UserFileFormat.JSONL, UserFileFormat.forPath(Path.of("dump/users.jsonl")));
+        assertThrows(IllegalArgumentException.class, () -> UserFileFormat.forPath(Path.of("users.xml")));
+    }
+
+    @Test
+    void csvParser_mapsColumnsByHeader() {
+        UserFileFormat.LineParser parser = UserFileFormat.CSV.parser("email,age,name");
+
+        User user = parser.parse("\"doe, john\"\"@example.com\",30,John");
+
+        assertEquals("John", user.getName());
+        assertEquals("doe, john\"@example.com", user.getEmail());
+        assertEquals(30, user.getAge());
+    }
+
+    @Test
+    void csvParser_emptyAge_parsesAsNull() {
+        User user = UserFileFormat.CSV.parser("name,email,age").parse("John,john@example.com,");
+
+        assertNull(user.getAge());
+    }
+
+    @Test
+    void csvParser_wrongFieldCount_throwsIllegalArgumentException() {
+        UserFileFormat.LineParser parser = UserFileFormat.CSV.parser("name,email,age");
+
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("John,john@example.com"));
+    }
+
+    @Test
+    void csvAppend_roundTripsThroughParser() {
+        User user = new User("Doe, \"John\"", "john@example.com", 30);
+        user.setId(7L);
+        StringBuilder line = new StringBuilder();
+
+        UserFileFormat.CSV.append(line, user);
+        User parsed = UserFileFormat.CSV.parser(UserFileFormat.CSV.header()).parse(line.toString());
+
+        assertEquals(user.getName(), parsed.getName());
+        assertEquals(user.getEmail(), parsed.getEmail());
+        assertEquals(user.getAge(), parsed.getAge());
+    }
+
+    @Test
+    void csvAppend_lineBreaksInValues_keepRecordOnOneLine() {
+        User user = new User("John\r\nDoe", "john@example.com", 30);
+        user.setId(7L);
+        StringBuilder line = new StringBuilder();
+
+        UserFileFormat.CSV.append(line, user);
+        User parsed = UserFileFormat.CSV.parser(UserFileFormat.CSV.header()).parse(line.toString());
+
+        assertFalse(line.toString().contains("\n") || line.toString().contains("\r"));
+        assertEquals("John Doe", parsed.getName());
+        assertEquals("john@example.com", parsed.getEmail());
+    }
+
+    @Test
+    void jsonlAppend_roundTripsThroughParser() {
+        User user = new User("Jöhn \"JD\"\tDoe", "john@example.com", null);
+        user.setId(7L);
+        StringBuilder line = new StringBuilder();
+
+        UserFileFormat.JSONL.append(line, user);
+        User parsed = UserFileFormat.JSONL.parser(null).parse(line.toString());
+
+        assertEquals(user.getName(), parsed.getName());
+        assertEquals(user.getEmail(), parsed.getEmail());
+        assertNull(parsed.getAge());
+    }
+
+    @Test
+    void jsonlParser_invalidLine_throwsIllegalArgumentException() {
+        UserFileFormat.LineParser parser = UserFileFormat.JSONL.parser(null);
+
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("{\"name\":\"John\","));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("{\"name\":\"John\",\"age\":\"x\"}"));
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.userservice.dao;
+
+import com.example.userservice.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachingUserDaoTest {
+
+    @Mock
+    private UserDao userDao;
+
+    private final AtomicLong clock = new AtomicLong();
+    private CachingUserDao cachingDao;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        cachingDao = new CachingUserDao(userDao, 2, Duration.ofSeconds(10), clock::get);
+        user = new User("John Doe", "john@example.com", 30);
+        user.setId(1L);
+    }
+
+    @Test
+    void findById_repeatedRead_hitsDatabaseOnce() {
+        when(userDao.findById(1L)).thenReturn(Optional.of(user));
+
+        assertEquals(Optional.of(user), cachingDao.findById(1L));
+        assertEquals(Optional.of(user), cachingDao.findById(1L));
+
+        verify(userDao, times(1)).findById(1L);
+        CacheStats stats = cachingDao.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+    }
+
+    @Test
+    void findById_callerMutatesReturnedUser_nextHitIsUnchanged() {
+        when(userDao.findById(1L)).thenReturn(Optional.of(user));
+
+        User loaded = cachingDao.findById(1L).orElseThrow();
+        loaded.setName("Changed");
+        user.setAge(99);
+        User hit = cachingDao.findById(1L).orElseThrow();
+        hit.setEmail("changed@example.com");
+        User nextHit = cachingDao.findAllById(List.of(1L)).get(0);
+
+        assertEquals("John Doe", nextHit.getName());
+        assertEquals("john@example.com", nextHit.getEmail());
+        assertEquals(30, nextHit.getAge());
+        assertNotSame(hit, nextHit);
+        verify(userDao, times(1)).findById(1L);
+    }
+
+    @Test
+    void findById_missingUser_isNotCached() {
+        when(userDao.findById(1L)).thenReturn(Optional.empty());
+
+        cachingDao.findById(1L);
+        cachingDao.findById(1L);
+
+        verify(userDao, times(2)).findById(1L);
+    }
+
+    @Test
+    void findById_expiredEntry_reloads() {
+        when(userDao.findById(1L)).thenReturn(Optional.of(user));
+
+        cachingDao.findById(1L);
+        clock.addAndGet(Duration.ofSeconds(11).toNanos());
+        cachingDao.findById(1L);
+
+        verify(userDao, times(2)).findById(1L);
+        assertEquals(1, cachingDao.stats().evictions());
+    }
+
+    @Test
+    void findById_overCapacity_evictsLeastRecentlyUsed() {
+        for (long id = 1; id <= 3; id++) {
+            User u = new User("User" + id, "user" + id + "@example.com", 20);
+            u.setId(id);
+            when(userDao.findById(id)).thenReturn(Optional.of(u));
+        }
+
+        cachingDao.findById(1L);
+        cachingDao.findById(2L);
+        cachingDao.findById(1L);
+        cachingDao.findById(3L);
+        cachingDao.findById(1L);
+        cachingDao.findById(2L);
+
+        verify(userDao, times(1)).findById(1L);
+        verify(userDao, times(2)).findById(2L);
+        assertEquals(2, cachingDao.stats().size());
+    }
+
+    @Test
+    void findAllById_partiallyCached_loadsOnlyMissingIdsInInputOrder() {
+        User other = new User("Jane Doe", "jane@example.com", 25);
+        other.setId(2L);
+        when(userDao.findById(1L)).thenReturn(Optional.of(user));
+        when(userDao.findAllById(List.of(2L, 3L))).thenReturn(List.of(other));
+
+        cachingDao.findById(1L);
+        List<User> result = cachingDao.findAllById(List.of(2L, 1L, 3L));
+
+        assertEquals(List.of(other, user), result);
+        verify(userDao).findAllById(List.of(2L, 3L));
+    }
+
+    @Test
+    void update_invalidatesCachedUser() {
+        when(userDao.findById(1L)).thenReturn(Optional.of(user));
+        when(userDao.update(user)).thenReturn(user);
+
+        cachingDao.findById(1L);
+        cachingDao.update(user);
+        cachingDao.findById(1L);
+
+        verify(userDao, times(2)).findById(1L);
+    }
+
+    @Test
+    void upsertByEmail_invalidatesAffectedUser() {
+        User incoming = new User("Johnny", "john@example.com", 31);
+        when(userDao.findById(1L)).thenReturn(Optional.of(user));
+        when(userDao.upsertByEmail(incoming)).thenAnswer(invocation -> {
+            incoming.setId(1L);
+            return incoming;
+        });
+
+        cachingDao.findById(1L);
+        cachingDao.upsertByEmail(incoming);
+        cachingDao.findById(1L);
+
+        verify(userDao, times(2)).findById(1L);
+    }
+
+    @Test
+    void deleteById_invalidatesCachedUser() {
+        when(userDao.findById(1L)).thenReturn(Optional.of(user), Optional.empty());
+        when(userDao.deleteById(1L)).thenReturn(true);
+
+        cachingDao.findById(1L);
+        assertTrue(cachingDao.deleteById(1L));
+
+        assertFalse(cachingDao.findById(1L).isPresent());
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.userservice.dao;
+
+import com.example.userservice.exception.ConcurrentUpdateException;
+import com.example.userservice.exception.DaoException;
+import com.example.userservice.exception.DuplicateEmailException;
+import com.example.userservice.model.User;
+import com.example.userservice.model.UserSummary;
+import com.example.userservice.service.RetryPolicy;
+import com.example.userservice.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryUserDaoTest {
+
+    private InMemoryUserDao userDao;
+
+    @BeforeEach
+    void setUp() {
+        userDao = new InMemoryUserDao(4, 16);
+    }
+
+    @Test
+    void create_assignsIdAndReturnsDetachedCopiesOnRead() {
+        User user = userDao.create(new User("John", "john@example.com", 30));
+
+        assertNotNull(user.getId());
+        assertNotNull(user.getCreatedAt());
+        User found = userDao.findById(user.getId()).orElseThrow();
+        found.setName("Changed");
+        assertEquals("John", userDao.findById(user.getId()).orElseThrow().getName());
+        assertEquals(user.getId(), userDao.findByEmail("john@example.com").orElseThrow().getId());
+    }
+
+    @Test
+    void create_duplicateEmail_throwsDuplicateEmailException() {
+        userDao.create(new User("John", "john@example.com", 30));
+
+        DaoException exception = assertThrows(DuplicateEmailException.class,
+                () -> userDao.create(new User("Jane", "john@example.com", 25)));
+        assertTrue(exception.getMessage().contains("Email must be unique"));
+        assertEquals(1, userDao.size());
+    }
+
+    @Test
+    void create_missingName_throwsDaoException() {
+        assertThrows(DaoException.class, () -> userDao.create(new User(null, "john@example.com", 30)));
+    }
+
+    @Test
+    void createAll_duplicateInChunk_rollsBackChunk() {
+        List<User> users = List.of(new User("John", "john@example.com", 30), new User("Jane", "john@example.com", 25));
+
+        assertThrows(DuplicateEmailException.class, () -> userDao.createAll(users));
+        assertTrue(userDao.findAll().isEmpty());
+        assertFalse(userDao.existsByEmail("john@example.com"));
+    }
+
+    @Test
+    void update_staleVersion_throwsConcurrentUpdateException() {
+        User user = userDao.create(new User("John", "john@example.com", 30));
+        User first = userDao.findById(user.getId()).orElseThrow();
+        User second = userDao.findById(user.getId()).orElseThrow();
+
+        first.setAge(31);
+        assertEquals(1, userDao.update(first).getVersion());
+        second.setAge(32);
+
+        assertThrows(ConcurrentUpdateException.class, () -> userDao.update(second));
+        assertEquals(31, userDao.findById(user.getId()).orElseThrow().getAge());
+    }
+
+    @Test
+    void update_changedEmail_movesEmailIndex() {
+        User john = userDao.create(new User("John", "john@example.com", 30));
+        userDao.create(new User("Jane", "jane@example.com", 25));
+
+        john.setEmail("johnny@example.com");
+        userDao.update(john);
+
+        assertFalse(userDao.existsByEmail("john@example.com"));
+        assertEquals(john.getId(), userDao.findByEmail("johnny@example.com").orElseThrow().getId());
+        john = userDao.findById(john.getId()).orElseThrow();
+        john.setEmail("jane@example.com");
+        User taken = john;
+        assertThrows(DuplicateEmailException.class, () -> userDao.update(taken));
+        assertTrue(userDao.existsByEmail("johnny@example.com"));
+    }
+
+    @Test
+    void updatePartialAndUpdateAgeWhere_bumpVersion() {
+        User user = userDao.create(new User("John", "john@example.com", 30));
+        userDao.create(new User("Jane", "jane@example.com", 50));
+
+        assertEquals(1, userDao.updatePartial(user.getId(), null, null, 31));
+        assertEquals(1, userDao.updateAgeWhere(20, 40, 35));
+
+        User reloaded = userDao.findById(user.getId()).orElseThrow();
+        assertEquals(35, reloaded.getAge());
+        assertEquals(2, reloaded.getVersion());
+        assertEquals(0, userDao.updatePartial(999L, "Nobody", null, null));
+    }
+
+    @Test
+    void updatePartial_noFields_reportsExistingRowWithoutWriting() {
+        User user = userDao.create(new User("John", "john@example.com", 30));
+
+        assertEquals(1, userDao.updatePartial(user.getId(), null, null, null));
+        assertEquals(0, userDao.updatePartial(999L, null, null, null));
+        assertEquals(0, userDao.findById(user.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    void upsertAll_repeatedEmails_singleRowPerEmail() {
+        User existing = userDao.create(new User("John", "john@example.com", 30));
+        List<User> users = List.of(
+                new User("Johnny", "john@example.com", 31),
+                new User("Jane", "jane@example.com", 25),
+                new User("Jane B", "jane@example.com", 26));
+
+        List<User> upserted = userDao.upsertAll(users);
+
+        assertEquals(existing.getId(), upserted.get(0).getId());
+        assertEquals(upserted.get(1).getId(), upserted.get(2).getId());
+        assertEquals(2, userDao.size());
+        assertEquals("Jane B", userDao.findByEmail("jane@example.com").orElseThrow().getName());
+        assertEquals(1, userDao.findById(existing.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    void find_filtersSortsAndLimitsLikeCriteria() {
+        userDao.create(new User("Anna", "anna@example.com", 40));
+        userDao.create(new User("andrew", "andrew@example.com", 20));
+        userDao.create(new User("Bob", "bob@example.com", 30));
+        userDao.create(new User("Alex", "alex@example.com", null));
+
+        List<User> found = userDao.find(UserQuery.all().withNamePrefix("AN").sortedBy(UserQuery.Sort.AGE));
+        List<UserSummary> summaries = userDao.findSummaries(UserQuery.all().sortedBy(UserQuery.Sort.AGE).withLimit(4));
+
+        assertEquals(List.of("andrew", "Anna"), found.stream().map(User::getName).toList());
+        assertEquals("Alex", summaries.get(3).name());
+        assertEquals(2, userDao.count(UserQuery.all().withAgeBetween(25, 45)));
+    }
+
+    @Test
+    void find_createdRange_excludesBothBounds() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            User user = new User("User" + i, "user" + i + "@example.com", 20);
+            user.setId(i + 1L);
+            user.setCreatedAt(LocalDateTime.of(2024, 1 + i, 1, 0, 0));
+            users.add(user);
+        }
+        userDao.load(users);
+
+        UserQuery february = UserQuery.all()
+                .withCreatedAfter(LocalDateTime.of(2024, 1, 1, 0, 0))
+                .withCreatedBefore(LocalDateTime.of(2024, 3, 1, 0, 0));
+
+        assertEquals(List.of("User1"), userDao.find(february).stream().map(User::getName).toList());
+        assertThrows(IllegalArgumentException.class, () -> february.withCreatedBefore(LocalDateTime.of(2023, 12, 1, 0, 0)));
+    }
+
+    @Test
+    void findPageAfterAndStreamAll_orderById() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            users.add(new User("User" + i, "user" + i + "@example.com", 20 + i));
+        }
+        userDao.createAll(users);
+
+        List<User> page = userDao.findPageAfter(users.get(1).getId(), 2);
+        try (Stream<User> stream = userDao.streamAll()) {
+            assertEquals(users.stream().map(User::getId).toList(), stream.map(User::getId).toList());
+        }
+        assertEquals(List.of(users.get(2).getId(), users.get(3).getId()), page.stream().map(User::getId).toList());
+    }
+
+    @Test
+    void deleteAllById_removesRowsAndEmails() {
+        User john = userDao.create(new User("John", "john@example.com", 30));
+        User jane = userDao.create(new User("Jane", "jane@example.com", 25));
+
+        assertEquals(2, userDao.deleteAllById(List.of(john.getId(), jane.getId(), 999L)));
+        assertFalse(userDao.existsByEmail("john@example.com"));
+        assertDoesNotThrow(() -> userDao.create(new User("John", "john@example.com", 30)));
+    }
+
+    @Test
+    void load_keepsIdsAndVersionsAndContinuesSequence() {
+        User user = new User("John", "john@example.com", 30);
+        user.setId(100L);
+        user.setVersion(7);
+
+        userDao.load(List.of(user));
+
+        assertEquals(7, userDao.findById(100L).orElseThrow().getVersion());
+        assertTrue(userDao.create(new User("Jane", "jane@example.com", 25)).getId() > 100L);
+    }
+
+    @Test
+    void updateUser_concurrentIncrements_noLostUpdates() throws Exception {
+        User user = userDao.create(new User("John", "john@example.com", 0));
+        UserService service = new UserService(userDao, new RetryPolicy(1000, Duration.ZERO, Duration.ZERO));
+        int threads = 8;
+        int increments = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < increments; i++) {
+                    service.updateUser(user.getId(), u -> u.setAge(u.getAge() + 1));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        User reloaded = userDao.findById(user.getId()).orElseThrow();
+        assertEquals(threads * increments, reloaded.getAge());
+        assertEquals(threads * increments, reloaded.getVersion());
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.userservice.dao;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongObjectMapTest {
+
+    @Test
+    void randomOperations_matchHashMap() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        Map<Long, String> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(5000) - 100;
+            switch (random.nextInt(3)) {
+                case 0 -> assertEquals(expected.put(key, "v" + i), map.put(key, "v" + i));
+                case 1 -> assertEquals(expected.remove(key), map.remove(key));
+                default -> assertEquals(expected.get(key), map.get(key));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> assertEquals(value, map.get(key)));
+        Map<String, Integer> seen = new HashMap<>();
+        map.forEachValue(value -> seen.merge(value, 1, Integer::sum));
+        assertEquals(expected.size(), seen.size());
+    }
+
+    @Test
+    void zeroKey_isStoredSeparately() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+
+        assertNull(map.put(0L, "zero"));
+        assertEquals("zero", map.get(0L));
+        assertEquals(1, map.size());
+        assertEquals("zero", map.remove(0L));
+        assertNull(map.get(0L));
+        assertEquals(0, map.size());
+    }
+}
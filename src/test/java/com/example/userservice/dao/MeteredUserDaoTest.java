@@ -0,0 +1,65 @@
+package com.example.userservice.dao;
+
+import com.example.userservice.exception.DaoException;
+import com.example.userservice.exception.DuplicateEmailException;
+import com.example.userservice.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.SQLException;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MeteredUserDaoTest {
+
+    @Mock
+    private UserDao userDao;
+
+    private SimpleMeterRegistry registry;
+    private MeteredUserDao meteredDao;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        meteredDao = new MeteredUserDao(userDao, registry);
+    }
+
+    @Test
+    void findById_recordsLatencyPerOperation() {
+        when(userDao.findById(1L)).thenReturn(Optional.empty());
+
+        meteredDao.findById(1L);
+        meteredDao.findById(1L);
+
+        assertEquals(2, registry.get("userdao.operation").tag("operation", "findById").timer().count());
+    }
+
+    @Test
+    void create_failure_countsErrorByThrownException() {
+        User user = new User("John", "john@example.com", 30);
+        when(userDao.create(user))
+                .thenThrow(new DaoException("Failed to create user", new SQLException("boom")))
+                .thenThrow(new DuplicateEmailException("Email must be unique: john@example.com",
+                        new SQLException("duplicate key", "23505")));
+
+        assertThrows(DaoException.class, () -> meteredDao.create(user));
+        assertThrows(DuplicateEmailException.class, () -> meteredDao.create(user));
+
+        assertEquals(1, registry.get("userdao.errors")
+                .tag("operation", "create")
+                .tag("exception", "DaoException")
+                .counter().count());
+        assertEquals(1, registry.get("userdao.errors")
+                .tag("operation", "create")
+                .tag("exception", "DuplicateEmailException")
+                .counter().count());
+        assertEquals(2, registry.get("userdao.operation").tag("operation", "create").timer().count());
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.userservice.dao;
+
+import com.example.userservice.exception.DaoException;
+import com.example.userservice.model.User;
+import com.example.userservice.util.ReadRouting;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightUserDaoTest {
+    private static final int THREADS = 8;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void findById_concurrentCallers_shareOneLoadAndGetOwnCopies() throws Exception {
+        InMemoryUserDao store = blockingStore();
+        User john = store.create(new User("John", "john@example.com", 30));
+        SingleFlightUserDao dao = new SingleFlightUserDao(store);
+
+        List<Future<Optional<User>>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> dao.findById(john.getId())));
+        }
+        awaitWaiters(dao, THREADS - 1);
+        release.countDown();
+
+        List<User> results = new ArrayList<>();
+        for (Future<Optional<User>> future : futures) {
+            results.add(future.get(5, TimeUnit.SECONDS).orElseThrow());
+        }
+        assertEquals(1, loads.get());
+        assertEquals(new SingleFlightStats(1, THREADS - 1), dao.stats());
+        results.get(0).setAge(99);
+        for (User user : results.subList(1, results.size())) {
+            assertNotSame(results.get(0), user);
+            assertEquals(30, user.getAge());
+        }
+    }
+
+    @Test
+    void find_completedFlight_isNotReused() {
+        InMemoryUserDao store = countingStore();
+        SingleFlightUserDao dao = new SingleFlightUserDao(store);
+
+        dao.find(UserQuery.all().withAgeBetween(18, null));
+        dao.find(UserQuery.all().withAgeBetween(21, null));
+        dao.find(UserQuery.all().withAgeBetween(18, null));
+
+        assertEquals(3, loads.get());
+        assertEquals(new SingleFlightStats(3, 0), dao.stats());
+    }
+
+    @Test
+    void findById_failedLoad_isRethrownToEveryWaiter() throws Exception {
+        InMemoryUserDao store = new InMemoryUserDao(4, 16) {
+            @Override
+            public Optional<User> findById(Long id) {
+                loads.incrementAndGet();
+                await(release);
+                throw new DaoException("database is down");
+            }
+        };
+        SingleFlightUserDao dao = new SingleFlightUserDao(store);
+
+        List<Future<Optional<User>>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> dao.findById(1L)));
+        }
+        awaitWaiters(dao, THREADS - 1);
+        release.countDown();
+
+        for (Future<Optional<User>> future : futures) {
+            Exception e = assertThrows(Exception.class, () -> future.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(DaoException.class, e.getCause());
+        }
+        assertEquals(1, loads.get());
+        assertEquals(new SingleFlightStats(1, THREADS - 1), dao.stats());
+
+        assertThrows(DaoException.class, () -> dao.findById(1L));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void readAfterWrite_doesNotJoinEarlierFlight() throws Exception {
+        InMemoryUserDao store = blockingStore();
+        User john = store.create(new User("John", "john@example.com", 30));
+        SingleFlightUserDao dao = new SingleFlightUserDao(store);
+
+        Future<Optional<User>> before = executor.submit(() -> dao.findById(john.getId()));
+        while (loads.get() == 0) {
+            Thread.onSpinWait();
+        }
+        dao.updatePartial(john.getId(), null, null, 31);
+        Future<Optional<User>> after = executor.submit(() -> dao.findById(john.getId()));
+        release.countDown();
+
+        after.get(5, TimeUnit.SECONDS);
+        before.get(5, TimeUnit.SECONDS);
+        assertEquals(2, loads.get());
+        assertEquals(31, dao.findById(john.getId()).orElseThrow().getAge());
+    }
+
+    @Test
+    void primaryScopedRead_doesNotJoinReplicaFlight() throws Exception {
+        InMemoryUserDao store = blockingStore();
+        User john = store.create(new User("John", "john@example.com", 30));
+        SingleFlightUserDao dao = new SingleFlightUserDao(store);
+
+        Future<Optional<User>> replica = executor.submit(() -> dao.findById(john.getId()));
+        while (loads.get() == 0) {
+            Thread.onSpinWait();
+        }
+        Future<Optional<User>> primary = executor.submit(() -> {
+            try (ReadRouting.Scope ignored = ReadRouting.primary()) {
+                return dao.findById(john.getId());
+            }
+        });
+        while (loads.get() < 2) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        primary.get(5, TimeUnit.SECONDS);
+        replica.get(5, TimeUnit.SECONDS);
+        assertEquals(2, loads.get());
+        assertEquals(0, dao.stats().shared());
+    }
+
+    private InMemoryUserDao blockingStore() {
+        return new InMemoryUserDao(4, 16) {
+            @Override
+            public Optional<User> findById(Long id) {
+                loads.incrementAndGet();
+                await(release);
+                return super.findById(id);
+            }
+        };
+    }
+
+    private InMemoryUserDao countingStore() {
+        return new InMemoryUserDao(4, 16) {
+            @Override
+            public List<User> find(UserQuery query) {
+                loads.incrementAndGet();
+                return super.find(query);
+            }
+        };
+    }
+
+    private static void awaitWaiters(SingleFlightUserDao dao, int waiters) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (dao.stats().shared() < waiters && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(waiters, dao.stats().shared());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
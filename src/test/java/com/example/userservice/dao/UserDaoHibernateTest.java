@@ -1,7 +1,12 @@
 package com.example.userservice.dao;
 
+import com.example.userservice.exception.ConcurrentUpdateException;
 import com.example.userservice.exception.DaoException;
+import com.example.userservice.exception.DuplicateEmailException;
 import com.example.userservice.model.User;
+import com.example.userservice.model.UserSummary;
+import com.example.userservice.service.RetryPolicy;
+import com.example.userservice.service.UserService;
 import com.example.userservice.util.HibernateUtil;
 import org.hibernate.SessionFactory;
 import org.junit.jupiter.api.AfterAll;
@@ -12,8 +17,15 @@ import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -80,6 +92,121 @@ class UserDaoHibernateTest {
         assertTrue(exception.getMessage().contains("Email must be unique"));
     }
 
+    @Test
+    void createAll_validUsers_persistsAllWithIds() {
+        List<User> users = List.of(
+                new User("John", "john@example.com", 30),
+                new User("Jane", "jane@example.com", 25));
+
+        List<User> created = userDao.createAll(users);
+
+        assertEquals(2, created.size());
+        assertTrue(created.stream().allMatch(u -> u.getId() != null));
+        assertEquals(2, userDao.findAll().size());
+    }
+
+    @Test
+    void createAll_duplicateEmail_throwsDaoExceptionAndRollsBackChunk() {
+        List<User> users = List.of(
+                new User("John", "john@example.com", 30),
+                new User("Jane", "john@example.com", 25));
+
+        DaoException exception = assertThrows(DaoException.class, () -> userDao.createAll(users));
+
+        assertTrue(exception.getMessage().contains("Email must be unique"));
+        assertTrue(userDao.findAll().isEmpty());
+    }
+
+    @Test
+    void createAll_afterPerRowCreates_persistsEveryRowWithDistinctIds() {
+        int rows = 200;
+        for (int i = 0; i < rows; i++) {
+            userDao.create(new User("Row" + i, "row" + i + "@example.com", 20));
+        }
+
+        List<User> batch = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            batch.add(new User("Batch" + i, "batch" + i + "@example.com", 20));
+        }
+        userDao.createAll(batch);
+
+        List<User> all = userDao.findAll();
+        assertEquals(2 * rows, all.size());
+        assertEquals(2 * rows, all.stream().map(User::getId).distinct().count());
+    }
+
+    @Test
+    void upsertByEmail_existingEmail_updatesRowAndReturnsItsId() {
+        User existing = userDao.create(new User("John", "john@example.com", 30));
+
+        User upserted = userDao.upsertByEmail(new User("Johnny", "john@example.com", 31));
+
+        assertEquals(existing.getId(), upserted.getId());
+        User stored = userDao.findById(existing.getId()).orElseThrow();
+        assertEquals("Johnny", stored.getName());
+        assertEquals(31, stored.getAge());
+        assertEquals(1, userDao.findAll().size());
+    }
+
+    @Test
+    void upsertAll_mixedAndRepeatedEmails_singleRowPerEmail() {
+        User existing = userDao.create(new User("John", "john@example.com", 30));
+
+        List<User> result = userDao.upsertAll(List.of(
+                new User("Jane", "jane@example.com", 25),
+                new User("John2", "john@example.com", 32),
+                new User("Jane2", "jane@example.com", 26)));
+
+        assertEquals(existing.getId(), result.get(1).getId());
+        assertEquals(result.get(0).getId(), result.get(2).getId());
+        assertEquals("Jane2", userDao.findById(result.get(0).getId()).orElseThrow().getName());
+        assertEquals(2, userDao.findAll().size());
+        assertNotNull(userDao.create(new User("Jack", "jack@example.com", 40)).getId());
+    }
+
+    @Test
+    void statelessCreateAll_andCopyAll_persistWithDistinctIds() {
+        StatelessUserDao stateless = new StatelessUserDao(userDao);
+        List<User> inserted = new ArrayList<>();
+        List<User> copied = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            inserted.add(new User("Insert" + i, "insert" + i + "@example.com", 20));
+            copied.add(new User("Copy \"" + i + "\", ok", "copy" + i + "@example.com", i % 2 == 0 ? null : 30));
+        }
+
+        stateless.createAll(inserted);
+        assertEquals(120, stateless.copyAll(copied.iterator()));
+        userDao.create(new User("After", "after@example.com", 40));
+
+        assertEquals(241, userDao.findAll().stream().map(User::getId).distinct().count());
+        User stored = userDao.findById(copied.get(7).getId()).orElseThrow();
+        assertEquals("Copy \"7\", ok", stored.getName());
+        assertEquals(stored.getCreatedAt(), copied.get(7).getCreatedAt());
+        assertEquals(0, copied.get(7).getVersion());
+    }
+
+    @Test
+    void statelessMergeAll_insertsNewAndOverwritesExisting() {
+        StatelessUserDao stateless = new StatelessUserDao(userDao);
+        User existing = userDao.create(new User("John", "john@example.com", 30));
+        existing.setName("Johnny");
+
+        stateless.mergeAll(List.of(existing, new User("Jane", "jane@example.com", 25)));
+
+        assertEquals("Johnny", userDao.findById(existing.getId()).orElseThrow().getName());
+        assertEquals(2, userDao.findAll().size());
+    }
+
+    @Test
+    void statelessCopyAll_duplicateEmail_throwsDuplicateEmailException() {
+        StatelessUserDao stateless = new StatelessUserDao(userDao);
+        userDao.create(new User("John", "john@example.com", 30));
+
+        assertThrows(DuplicateEmailException.class,
+                () -> stateless.copyAll(List.of(new User("Jane", "john@example.com", 25)).iterator()));
+        assertEquals(1, userDao.findAll().size());
+    }
+
     @Test
     void findById_existingId_returnsUser() {
         User user = new User("John Doe", "john@example.com", 30);
@@ -99,6 +226,45 @@ class UserDaoHibernateTest {
         assertFalse(result.isPresent());
     }
 
+    @Test
+    void findAllById_mixedIds_returnsExistingUsersInInputOrder() {
+        User user1 = userDao.create(new User("John", "john@example.com", 30));
+        User user2 = userDao.create(new User("Jane", "jane@example.com", 25));
+
+        List<User> result = userDao.findAllById(List.of(user2.getId(), 999L, user1.getId()));
+
+        assertEquals(List.of(user2.getId(), user1.getId()), result.stream().map(User::getId).toList());
+    }
+
+    @Test
+    void findByEmail_existingEmail_returnsUser() {
+        User user = userDao.create(new User("John", "john@example.com", 30));
+
+        Optional<User> result = userDao.findByEmail("john@example.com");
+
+        assertTrue(result.isPresent());
+        assertEquals(user.getId(), result.get().getId());
+        assertFalse(userDao.findByEmail("missing@example.com").isPresent());
+    }
+
+    @Test
+    void existsByEmail_reflectsStoredEmails() {
+        userDao.create(new User("John", "john@example.com", 30));
+
+        assertTrue(userDao.existsByEmail("john@example.com"));
+        assertFalse(userDao.existsByEmail("missing@example.com"));
+    }
+
+    @Test
+    void findByEmails_mixedEmails_returnsKnownUsersInInputOrder() {
+        userDao.create(new User("John", "john@example.com", 30));
+        userDao.create(new User("Jane", "jane@example.com", 25));
+
+        List<User> result = userDao.findByEmails(List.of("jane@example.com", "missing@example.com", "john@example.com"));
+
+        assertEquals(List.of("jane@example.com", "john@example.com"), result.stream().map(User::getEmail).toList());
+    }
+
     @Test
     void findAll_multipleUsers_returnsAllUsers() {
         User user1 = new User("John", "john@example.com", 30);
@@ -120,6 +286,75 @@ class UserDaoHibernateTest {
         assertTrue(users.isEmpty());
     }
 
+    @Test
+    void findPageAfter_returnsNextPageOrderedById() {
+        User user1 = userDao.create(new User("John", "john@example.com", 30));
+        User user2 = userDao.create(new User("Jane", "jane@example.com", 25));
+        User user3 = userDao.create(new User("Jack", "jack@example.com", 40));
+
+        List<User> first = userDao.findPageAfter(null, 2);
+        List<User> second = userDao.findPageAfter(first.get(1).getId(), 2);
+
+        assertEquals(List.of(user1.getId(), user2.getId()), first.stream().map(User::getId).toList());
+        assertEquals(List.of(user3.getId()), second.stream().map(User::getId).toList());
+    }
+
+    @Test
+    void find_combinedFilters_returnsMatchingUsersInRequestedOrder() {
+        userDao.create(new User("John", "john@example.com", 30));
+        User jo = userDao.create(new User("joanna", "joanna@example.com", 22));
+        User jack = userDao.create(new User("Jo_ack", "jack@example.com", 25));
+        userDao.create(new User("Mary", "mary@example.com", 24));
+
+        UserQuery query = UserQuery.all().withNamePrefix("JO").withAgeBetween(20, 26).sortedBy(UserQuery.Sort.AGE);
+
+        assertEquals(List.of(jo.getId(), jack.getId()), userDao.find(query).stream().map(User::getId).toList());
+        assertEquals(List.of(jack.getId()),
+                userDao.find(UserQuery.all().withNamePrefix("jo_")).stream().map(User::getId).toList());
+        assertEquals(1, userDao.find(query.withLimit(1)).size());
+    }
+
+    @Test
+    void findSummaries_returnsProjectedColumnsInOrder() {
+        User john = userDao.create(new User("John", "john@example.com", 30));
+        User jane = userDao.create(new User("Jane", "jane@example.com", 25));
+
+        assertEquals(List.of(new UserSummary(john.getId(), "John", "john@example.com"),
+                        new UserSummary(jane.getId(), "Jane", "jane@example.com")),
+                userDao.findAllSummaries());
+        assertEquals(List.of(new UserSummary(jane.getId(), "Jane", "jane@example.com")),
+                userDao.findSummaries(UserQuery.all().withAgeBetween(null, 26)));
+    }
+
+    @Test
+    void count_filters_countsWithoutLimit() {
+        for (int i = 0; i < 5; i++) {
+            userDao.create(new User("User" + i, "user" + i + "@example.com", 20 + i));
+        }
+
+        assertEquals(5, userDao.count(UserQuery.all().withLimit(1)));
+        assertEquals(3, userDao.count(UserQuery.all().withAgeBetween(22, null)));
+        assertEquals(0, userDao.count(UserQuery.all().withCreatedAfter(LocalDateTime.now().plusDays(1))));
+        assertEquals(5, userDao.count(UserQuery.all()
+                .withCreatedAfter(LocalDateTime.now().minusDays(1))
+                .withCreatedBefore(LocalDateTime.now().plusDays(1))));
+    }
+
+    @Test
+    void streamAll_multipleUsers_streamsAllUsersInIdOrder() {
+        for (int i = 0; i < 1200; i++) {
+            userDao.create(new User("User" + i, "user" + i + "@example.com", 20));
+        }
+
+        List<Long> ids;
+        try (Stream<User> users = userDao.streamAll()) {
+            ids = users.map(User::getId).toList();
+        }
+
+        assertEquals(1200, ids.size());
+        assertEquals(ids.stream().sorted().toList(), ids);
+    }
+
     @Test
     void update_existingUser_updatesFields() {
         User user = new User("John", "john@example.com", 30);
@@ -149,6 +384,125 @@ class UserDaoHibernateTest {
         assertTrue(exception.getMessage().contains("Email must be unique"));
     }
 
+    @Test
+    void update_staleVersion_throwsConcurrentUpdateException() {
+        User user = userDao.create(new User("John", "john@example.com", 30));
+        User first = userDao.findById(user.getId()).orElseThrow();
+        User second = userDao.findById(user.getId()).orElseThrow();
+
+        first.setAge(31);
+        assertEquals(1, userDao.update(first).getVersion());
+        second.setAge(32);
+
+        assertThrows(ConcurrentUpdateException.class, () -> userDao.update(second));
+        assertEquals(31, userDao.findById(user.getId()).orElseThrow().getAge());
+    }
+
+    @Test
+    void updateUser_concurrentIncrements_retriesWithoutLostUpdates() throws Exception {
+        User user = userDao.create(new User("John", "john@example.com", 0));
+        UserService service = new UserService(userDao, new RetryPolicy(100, Duration.ofMillis(1), Duration.ofMillis(20)));
+        int threads = 8;
+        int increments = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < increments; i++) {
+                    service.updateUser(user.getId(), u -> u.setAge(u.getAge() + 1));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        User reloaded = userDao.findById(user.getId()).orElseThrow();
+        assertEquals(threads * increments, reloaded.getAge());
+        assertEquals(threads * increments, reloaded.getVersion());
+    }
+
+    @Test
+    void updateAll_writesMatchingVersionsAndSkipsStaleRows() {
+        User john = userDao.create(new User("John", "john@example.com", 30));
+        User jane = userDao.create(new User("Jane", "jane@example.com", 25));
+        userDao.updatePartial(jane.getId(), null, null, 26);
+
+        john.setAge(40);
+        john.setVersion(5);
+        jane.setAge(50);
+        jane.setVersion(5);
+        List<Long> skipped = userDao.updateAll(List.of(new VersionedUpdate(john, 0), new VersionedUpdate(jane, 0)));
+
+        assertEquals(List.of(jane.getId()), skipped);
+        User reloaded = userDao.findById(john.getId()).orElseThrow();
+        assertEquals(40, reloaded.getAge());
+        assertEquals(5, reloaded.getVersion());
+        assertEquals(26, userDao.findById(jane.getId()).orElseThrow().getAge());
+    }
+
+    @Test
+    void updatePartial_changesOnlyGivenFields() {
+        User user = userDao.create(new User("John", "john@example.com", 30));
+
+        int updated = userDao.updatePartial(user.getId(), null, null, 31);
+
+        assertEquals(1, updated);
+        User reloaded = userDao.findById(user.getId()).orElseThrow();
+        assertEquals("John", reloaded.getName());
+        assertEquals("john@example.com", reloaded.getEmail());
+        assertEquals(31, reloaded.getAge());
+    }
+
+    @Test
+    void updatePartial_nonExistingId_returnsZero() {
+        assertEquals(0, userDao.updatePartial(999L, "Jane", null, null));
+    }
+
+    @Test
+    void updatePartial_noFields_reportsExistingRowWithoutWriting() {
+        User user = userDao.create(new User("John", "john@example.com", 30));
+
+        assertEquals(1, userDao.updatePartial(user.getId(), null, null, null));
+        assertEquals(0, userDao.updatePartial(999L, null, null, null));
+        assertEquals(0, userDao.findById(user.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    void updatePartial_duplicateEmail_throwsDaoException() {
+        userDao.create(new User("John", "john@example.com", 30));
+        User user2 = userDao.create(new User("Jane", "jane@example.com", 25));
+
+        DaoException exception = assertThrows(DaoException.class,
+                () -> userDao.updatePartial(user2.getId(), null, "john@example.com", null));
+        assertTrue(exception.getMessage().contains("Email must be unique"));
+    }
+
+    @Test
+    void updateAgeWhere_updatesUsersInRange() {
+        userDao.create(new User("John", "john@example.com", 30));
+        userDao.create(new User("Jane", "jane@example.com", 25));
+        userDao.create(new User("Jack", "jack@example.com", 40));
+
+        int updated = userDao.updateAgeWhere(20, 30, 35);
+
+        assertEquals(2, updated);
+        assertEquals(2, userDao.findAll().stream().filter(u -> u.getAge() == 35).count());
+    }
+
+    @Test
+    void deleteAllById_deletesExistingUsers() {
+        User user1 = userDao.create(new User("John", "john@example.com", 30));
+        User user2 = userDao.create(new User("Jane", "jane@example.com", 25));
+
+        int deleted = userDao.deleteAllById(List.of(user1.getId(), user2.getId(), 999L));
+
+        assertEquals(2, deleted);
+        assertTrue(userDao.findAll().isEmpty());
+    }
+
     @Test
     void deleteById_existingId_deletesAndReturnsTrue() {
         User user = new User("John", "john@example.com", 30);
@@ -0,0 +1,221 @@
+package com.example.userservice.dao;
+
+import com.example.userservice.exception.ConcurrentUpdateException;
+import com.example.userservice.exception.DaoException;
+import com.example.userservice.model.User;
+import com.example.userservice.service.RetryPolicy;
+import com.example.userservice.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteBehindUserDaoTest {
+
+    private InMemoryUserDao store;
+    private SimpleMeterRegistry registry;
+    private WriteBehindUserDao writeBehind;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryUserDao(4, 16);
+        registry = new SimpleMeterRegistry();
+        writeBehind = new WriteBehindUserDao(store, 100, 50, Duration.ofHours(1), registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        writeBehind.close();
+    }
+
+    @Test
+    void update_repeatedUpdates_coalesceIntoOneRowWrite() {
+        User user = store.create(new User("John", "john@example.com", 0));
+
+        for (int i = 1; i <= 10; i++) {
+            user.setAge(i);
+            user = writeBehind.update(user);
+        }
+
+        assertEquals(0, store.findById(user.getId()).orElseThrow().getAge());
+        assertEquals(10, writeBehind.findById(user.getId()).orElseThrow().getAge());
+        assertEquals(1, writeBehind.flush());
+        User stored = store.findById(user.getId()).orElseThrow();
+        assertEquals(10, stored.getAge());
+        assertEquals(10, stored.getVersion());
+        WriteBehindStats stats = writeBehind.stats();
+        assertEquals(10.0, stats.coalescingRatio());
+        assertEquals(0, stats.pending());
+        assertEquals(1, registry.get("userdao.writebehind.flush").timer().count());
+    }
+
+    @Test
+    void update_staleVersion_throwsImmediately() {
+        User user = store.create(new User("John", "john@example.com", 30));
+        User first = writeBehind.findById(user.getId()).orElseThrow();
+        User second = writeBehind.findById(user.getId()).orElseThrow();
+
+        first.setAge(31);
+        writeBehind.update(first);
+        second.setAge(32);
+
+        assertThrows(ConcurrentUpdateException.class, () -> writeBehind.update(second));
+        assertEquals(31, writeBehind.findById(user.getId()).orElseThrow().getAge());
+    }
+
+    @Test
+    void flush_rowChangedByAnotherWriter_dropsBufferedState() {
+        User user = store.create(new User("John", "john@example.com", 30));
+        user.setAge(31);
+        writeBehind.update(user);
+
+        store.updatePartial(user.getId(), "Johnny", null, null);
+        writeBehind.flush();
+
+        User stored = store.findById(user.getId()).orElseThrow();
+        assertEquals("Johnny", stored.getName());
+        assertEquals(30, stored.getAge());
+        assertEquals(1, writeBehind.stats().droppedRows());
+        assertEquals(0, writeBehind.stats().pending());
+    }
+
+    @Test
+    void update_changedEmail_isWrittenThrough() {
+        User user = store.create(new User("John", "john@example.com", 30));
+        user.setAge(31);
+        user = writeBehind.update(user);
+
+        user.setEmail("johnny@example.com");
+        writeBehind.update(user);
+
+        User stored = store.findById(user.getId()).orElseThrow();
+        assertEquals("johnny@example.com", stored.getEmail());
+        assertEquals(31, stored.getAge());
+        assertEquals(2, stored.getVersion());
+    }
+
+    @Test
+    void update_fullBufferThatCannotFlush_failsAfterTimeout() {
+        InMemoryUserDao failing = new InMemoryUserDao(4, 16) {
+            @Override
+            public List<Long> updateAll(Collection<VersionedUpdate> updates) {
+                throw new DaoException("database is down");
+            }
+        };
+        try (WriteBehindUserDao bounded = new WriteBehindUserDao(failing, 1, 10, Duration.ofHours(1),
+                Duration.ofMillis(50), registry)) {
+            User john = failing.create(new User("John", "john@example.com", 30));
+            User jane = failing.create(new User("Jane", "jane@example.com", 25));
+            john.setAge(31);
+            bounded.update(john);
+            jane.setAge(26);
+
+            DaoException exception = assertThrows(DaoException.class, () -> bounded.update(jane));
+            assertTrue(exception.getMessage().contains("buffer is full"));
+            assertTrue(bounded.stats().failedFlushes() > 0);
+        }
+    }
+
+    @Test
+    void update_nameLongerThanColumn_throwsWithoutBuffering() {
+        User user = store.create(new User("John", "john@example.com", 30));
+        user.setName("x".repeat(User.NAME_LENGTH + 1));
+
+        assertThrows(DaoException.class, () -> writeBehind.update(user));
+        assertEquals(0, writeBehind.stats().pending());
+    }
+
+    @Test
+    void flush_rowRejectedByDatabase_dropsOnlyThatRowAndWritesTheRest() {
+        InMemoryUserDao rejecting = new InMemoryUserDao(4, 16) {
+            @Override
+            public List<Long> updateAll(Collection<VersionedUpdate> updates) {
+                if (updates.stream().anyMatch(update -> update.user().getName().equals("Bad"))) {
+                    throw new DaoException("Failed to update users", new IllegalArgumentException("value too long"));
+                }
+                return super.updateAll(updates);
+            }
+        };
+        try (WriteBehindUserDao batched = new WriteBehindUserDao(rejecting, 100, 2, Duration.ofHours(1), registry)) {
+            List<User> users = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                User user = rejecting.create(new User("User" + i, "user" + i + "@example.com", 20));
+                user.setName(i == 1 ? "Bad" : "Renamed" + i);
+                users.add(batched.update(user));
+            }
+
+            batched.flush();
+
+            WriteBehindStats stats = batched.stats();
+            assertEquals(3, stats.writtenRows());
+            assertEquals(1, stats.rejectedRows());
+            assertEquals(0, stats.pending());
+            assertEquals("User1", rejecting.findById(users.get(1).getId()).orElseThrow().getName());
+            assertEquals("Renamed3", rejecting.findById(users.get(3).getId()).orElseThrow().getName());
+        }
+    }
+
+    @Test
+    void close_writesPendingUpdates() {
+        User user = store.create(new User("John", "john@example.com", 30));
+        user.setAge(31);
+        writeBehind.update(user);
+
+        writeBehind.close();
+
+        assertEquals(31, store.findById(user.getId()).orElseThrow().getAge());
+    }
+
+    @Test
+    void deleteById_discardsBufferedState() {
+        User user = store.create(new User("John", "john@example.com", 30));
+        user.setAge(31);
+        writeBehind.update(user);
+
+        assertTrue(writeBehind.deleteById(user.getId()));
+
+        assertEquals(0, writeBehind.stats().pending());
+        assertTrue(writeBehind.findById(user.getId()).isEmpty());
+    }
+
+    @Test
+    void updateUser_concurrentIncrements_noLostUpdates() throws Exception {
+        User user = store.create(new User("John", "john@example.com", 0));
+        UserService service = new UserService(writeBehind, new RetryPolicy(1000, Duration.ZERO, Duration.ZERO));
+        int threads = 8;
+        int increments = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < increments; i++) {
+                    service.updateUser(user.getId(), u -> u.setAge(u.getAge() + 1));
+                    if (i % 50 == 0) {
+                        writeBehind.flush();
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        writeBehind.flush();
+
+        User stored = store.findById(user.getId()).orElseThrow();
+        assertEquals(threads * increments, stored.getAge());
+        assertEquals(threads * increments, stored.getVersion());
+        assertEquals(0, writeBehind.stats().droppedRows());
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.userservice.service;
+
+import com.example.userservice.exception.DaoException;
+import com.example.userservice.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncUserServiceTest {
+
+    @Mock
+    private UserService userService;
+
+    private AsyncUserService asyncService;
+
+    @AfterEach
+    void tearDown() {
+        asyncService.close();
+    }
+
+    @Test
+    void getUserById_completesWithServiceResult() throws Exception {
+        User user = new User("John Doe", "john@example.com", 30);
+        when(userService.getUserById(1L)).thenReturn(Optional.of(user));
+        asyncService = new AsyncUserService(userService, Executors.newCachedThreadPool(), 2);
+
+        assertEquals(Optional.of(user), asyncService.getUserById(1L).get());
+    }
+
+    @Test
+    void createUser_serviceThrows_completesExceptionally() {
+        when(userService.createUser("John", "john@example.com", 30)).thenThrow(new DaoException("Email must be unique"));
+        asyncService = new AsyncUserService(userService, Executors.newCachedThreadPool(), 2);
+
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> asyncService.createUser("John", "john@example.com", 30).get());
+        assertInstanceOf(DaoException.class, exception.getCause());
+    }
+
+    @Test
+    void concurrentCalls_neverExceedConcurrencyLimit() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        when(userService.deleteUser(anyLong())).thenAnswer(invocation -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(5);
+            running.decrementAndGet();
+            return true;
+        });
+        asyncService = new AsyncUserService(userService, Executors.newCachedThreadPool(), 3);
+
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (long id = 1; id <= 50; id++) {
+            futures.add(asyncService.deleteUser(id));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+        assertTrue(peak.get() <= 3);
+        verify(userService, times(50)).deleteUser(anyLong());
+    }
+}
@@ -1,8 +1,11 @@
 package com.example.userservice.service;
 
 import com.example.userservice.dao.UserDao;
+import com.example.userservice.dao.UserQuery;
+import com.example.userservice.exception.ConcurrentUpdateException;
 import com.example.userservice.exception.DaoException;
 import com.example.userservice.model.User;
+import com.example.userservice.model.UserSummary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,11 +13,14 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -58,6 +64,51 @@ class UserServiceTest {
         verify(userDao).create(any(User.class));
     }
 
+    @Test
+    void createUsers_validUsers_delegatesToBatchInsert() {
+        List<User> users = List.of(user, new User("Jane Doe", "jane@example.com", 25));
+        when(userDao.createAll(users)).thenReturn(users);
+
+        List<User> result = userService.createUsers(users);
+
+        assertEquals(users, result);
+        verify(userDao).createAll(users);
+    }
+
+    @Test
+    void createUsers_blankEmail_throwsIllegalArgumentException() {
+        List<User> users = List.of(user, new User("Jane Doe", " ", 25));
+
+        assertThrows(IllegalArgumentException.class, () -> userService.createUsers(users));
+        verify(userDao, never()).createAll(any());
+    }
+
+    @Test
+    void createUser_lineBreakInName_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> userService.createUser("John\nDoe", "john@example.com", 30));
+        assertThrows(IllegalArgumentException.class, () -> userService.patchUser(1L, null, "john\r@example.com", null));
+        verifyNoInteractions(userDao);
+    }
+
+    @Test
+    void upsertUser_validUser_delegatesToUpsertByEmail() {
+        when(userDao.upsertByEmail(any(User.class))).thenReturn(user);
+
+        User result = userService.upsertUser("John Doe", "john@example.com", 30);
+
+        assertEquals(user, result);
+        verify(userDao).upsertByEmail(argThat(u -> u.getEmail().equals("john@example.com") && u.getAge() == 30));
+    }
+
+    @Test
+    void upsertUsers_invalidUser_throwsIllegalArgumentException() {
+        List<User> users = List.of(user, new User("", "bad@example.com", 20));
+
+        assertThrows(IllegalArgumentException.class, () -> userService.upsertUsers(users));
+        verify(userDao, never()).upsertAll(any());
+    }
+
     @Test
     void getUserById_existingId_returnsUser() {
         when(userDao.findById(1L)).thenReturn(Optional.of(user));
@@ -79,6 +130,43 @@ class UserServiceTest {
         verify(userDao).findById(1L);
     }
 
+    @Test
+    void getUsersByIds_delegatesToBatchLoad() {
+        when(userDao.findAllById(List.of(1L, 2L))).thenReturn(List.of(user));
+
+        List<User> result = userService.getUsersByIds(List.of(1L, 2L));
+
+        assertEquals(List.of(user), result);
+        verify(userDao).findAllById(List.of(1L, 2L));
+    }
+
+    @Test
+    void getUserByEmail_existingEmail_returnsUser() {
+        when(userDao.findByEmail("john@example.com")).thenReturn(Optional.of(user));
+
+        Optional<User> result = userService.getUserByEmail("john@example.com");
+
+        assertEquals(Optional.of(user), result);
+        verify(userDao).findByEmail("john@example.com");
+    }
+
+    @Test
+    void getUserByEmail_blankEmail_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> userService.getUserByEmail(" "));
+        verify(userDao, never()).findByEmail(any());
+    }
+
+    @Test
+    void getUsersByEmails_delegatesToBulkLookup() {
+        List<String> emails = List.of("john@example.com", "missing@example.com");
+        when(userDao.findByEmails(emails)).thenReturn(List.of(user));
+
+        List<User> result = userService.getUsersByEmails(emails);
+
+        assertEquals(List.of(user), result);
+        verify(userDao).findByEmails(emails);
+    }
+
     @Test
     void getAllUsers_returnsUserList() {
         List<User> users = List.of(user);
@@ -91,6 +179,64 @@ class UserServiceTest {
         verify(userDao).findAll();
     }
 
+    @Test
+    void getAllUsers_page_delegatesToKeysetQuery() {
+        when(userDao.findPageAfter(1L, 10)).thenReturn(List.of(user));
+
+        List<User> result = userService.getAllUsers(1L, 10);
+
+        assertEquals(List.of(user), result);
+        verify(userDao).findPageAfter(1L, 10);
+    }
+
+    @Test
+    void getAllUsers_nonPositiveLimit_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> userService.getAllUsers(null, 0));
+        verify(userDao, never()).findPageAfter(any(), anyInt());
+    }
+
+    @Test
+    void searchUsers_validQuery_delegatesToDao() {
+        UserQuery query = UserQuery.all().withNamePrefix("jo").withAgeBetween(18, 40);
+        when(userDao.find(query)).thenReturn(List.of(user));
+
+        assertEquals(List.of(user), userService.searchUsers(query));
+    }
+
+    @Test
+    void searchUsers_limitAboveMaximum_throwsIllegalArgumentException() {
+        UserQuery query = UserQuery.all().withLimit(UserService.MAX_SEARCH_LIMIT + 1);
+
+        assertThrows(IllegalArgumentException.class, () -> userService.searchUsers(query));
+        verify(userDao, never()).find(any());
+    }
+
+    @Test
+    void searchUserSummaries_validQuery_returnsProjection() {
+        UserQuery query = UserQuery.all().withNamePrefix("jo");
+        UserSummary summary = new UserSummary(1L, "John Doe", "john@example.com");
+        when(userDao.findSummaries(query)).thenReturn(List.of(summary));
+
+        assertEquals(List.of(summary), userService.searchUserSummaries(query));
+        verify(userDao, never()).find(any());
+    }
+
+    @Test
+    void countUsers_negativeAge_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> userService.countUsers(UserQuery.all().withAgeBetween(-1, 5)));
+        verify(userDao, never()).count(any());
+    }
+
+    @Test
+    void streamAllUsers_returnsDaoStream() {
+        when(userDao.streamAll()).thenReturn(Stream.of(user));
+
+        try (Stream<User> result = userService.streamAllUsers()) {
+            assertEquals(List.of(user), result.toList());
+        }
+        verify(userDao).streamAll();
+    }
+
     @Test
     void updateUser_existingUser_returnsUpdatedUser() {
         when(userDao.findById(1L)).thenReturn(Optional.of(user));
@@ -118,6 +264,79 @@ class UserServiceTest {
         verify(userDao, never()).update(any(User.class));
     }
 
+    @Test
+    void updateUser_concurrentModification_rereadsAndRetries() {
+        UserService retrying = new UserService(userDao, new RetryPolicy(3, Duration.ZERO, Duration.ZERO));
+        User stale = new User("John Doe", "john@example.com", 30);
+        stale.setId(1L);
+        User fresh = new User("John Doe", "john@example.com", 40);
+        fresh.setId(1L);
+        fresh.setVersion(1);
+        when(userDao.findById(1L)).thenReturn(Optional.of(stale), Optional.of(fresh));
+        when(userDao.update(any(User.class)))
+                .thenThrow(new ConcurrentUpdateException("modified"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        User result = retrying.updateUser(1L, u -> u.setAge(u.getAge() + 1));
+
+        assertEquals(41, result.getAge());
+        verify(userDao, times(2)).findById(1L);
+        verify(userDao, times(2)).update(any(User.class));
+    }
+
+    @Test
+    void updateUser_retriesExhausted_rethrowsConcurrentUpdateException() {
+        UserService retrying = new UserService(userDao, new RetryPolicy(2, Duration.ZERO, Duration.ZERO));
+        when(userDao.findById(1L)).thenReturn(Optional.of(user));
+        when(userDao.update(any(User.class))).thenThrow(new ConcurrentUpdateException("modified"));
+
+        assertThrows(ConcurrentUpdateException.class, () -> retrying.updateUser(1L, u -> u.setAge(31)));
+        verify(userDao, times(2)).update(any(User.class));
+    }
+
+    @Test
+    void retryPolicy_backoff_staysWithinCappedExponentialBound() {
+        RetryPolicy policy = new RetryPolicy(5, Duration.ofMillis(10), Duration.ofMillis(50));
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(policy.backoffMillis(1) <= 10);
+            assertTrue(policy.backoffMillis(3) <= 40);
+            assertTrue(policy.backoffMillis(10) <= 50);
+        }
+    }
+
+    @Test
+    void patchUser_existingUser_updatesOnlyGivenFields() {
+        when(userDao.updatePartial(1L, null, "jane@example.com", 31)).thenReturn(1);
+
+        boolean result = userService.patchUser(1L, " ", "jane@example.com", 31);
+
+        assertTrue(result);
+        verify(userDao).updatePartial(1L, null, "jane@example.com", 31);
+        verify(userDao, never()).findById(any());
+    }
+
+    @Test
+    void patchUser_nonExistingUser_returnsFalse() {
+        when(userDao.updatePartial(1L, "Jane", null, null)).thenReturn(0);
+
+        assertFalse(userService.patchUser(1L, "Jane", null, null));
+    }
+
+    @Test
+    void updateAgeWhere_invalidRange_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> userService.updateAgeWhere(40, 30, 35));
+        verify(userDao, never()).updateAgeWhere(anyInt(), anyInt(), any());
+    }
+
+    @Test
+    void deleteUsers_delegatesToBulkDelete() {
+        when(userDao.deleteAllById(List.of(1L, 2L))).thenReturn(2);
+
+        assertEquals(2, userService.deleteUsers(List.of(1L, 2L)));
+        verify(userDao).deleteAllById(List.of(1L, 2L));
+    }
+
     @Test
     void deleteUser_existingId_returnsTrue() {
         when(userDao.deleteById(1L)).thenReturn(true);
@@ -0,0 +1,57 @@
+package com.example.userservice.util;
+
+import com.example.userservice.util.PartitionManager.Partition;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionManagerTest {
+
+    @Test
+    void partition_coversOneMonthAndRoundTripsThroughItsName() {
+        Partition december = Partition.of(YearMonth.of(2024, 12));
+
+        assertEquals("users_p202412", december.name());
+        assertEquals(LocalDate.of(2024, 12, 1), december.from());
+        assertEquals(LocalDate.of(2025, 1, 1), december.to());
+        assertEquals(Optional.of(december), Partition.parse("users_p202412"));
+        assertEquals(Optional.empty(), Partition.parse("users_default"));
+    }
+
+    @Test
+    void missing_skipsExistingMonths() {
+        List<Partition> existing = List.of(Partition.of(YearMonth.of(2024, 11)), Partition.of(YearMonth.of(2024, 12)));
+
+        List<Partition> missing = PartitionManager.missing(existing, YearMonth.of(2024, 11), 3);
+
+        assertEquals(List.of("users_p202501", "users_p202502"), missing.stream().map(Partition::name).toList());
+    }
+
+    @Test
+    void monthsThrough_spansFromOldestMonthToMonthsAheadOfCurrent() {
+        YearMonth current = YearMonth.of(2025, 3);
+
+        int months = PartitionManager.monthsThrough(YearMonth.of(2023, 11), current, 3);
+        List<Partition> missing = PartitionManager.missing(List.of(), YearMonth.of(2023, 11), months);
+
+        assertEquals("users_p202311", missing.get(0).name());
+        assertEquals("users_p202506", missing.get(missing.size() - 1).name());
+        assertEquals(20, missing.size());
+        assertEquals(3, PartitionManager.monthsThrough(YearMonth.of(2025, 5), current, 3));
+    }
+
+    @Test
+    void expired_returnsPartitionsEndingOnOrBeforeCutoff() {
+        List<Partition> existing = List.of(Partition.of(YearMonth.of(2024, 3)), Partition.of(YearMonth.of(2024, 1)),
+                Partition.of(YearMonth.of(2024, 2)));
+
+        List<Partition> expired = PartitionManager.expired(existing, LocalDate.of(2024, 3, 1));
+
+        assertEquals(List.of("users_p202401", "users_p202402"), expired.stream().map(Partition::name).toList());
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.userservice.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadRoutingTest {
+
+    private static final long WINDOW = TimeUnit.SECONDS.toNanos(30);
+
+    @AfterEach
+    void tearDown() {
+        ReadRouting.stickyWindow(0);
+    }
+
+    @Test
+    void recordWrite_opensWindowForWritingThreadOnly() throws Exception {
+        ReadRouting.stickyWindow(WINDOW);
+        assertFalse(CompletableFuture.supplyAsync(ReadRouting::primaryRequired).get());
+
+        ReadRouting.recordWrite();
+
+        assertTrue(ReadRouting.primaryRequired());
+        assertFalse(CompletableFuture.supplyAsync(ReadRouting::primaryRequired).get(),
+                "another thread must keep reading from replicas");
+        ReadRouting.stickyWindow(0);
+        assertFalse(ReadRouting.primaryRequired(), "no window without stickyMillis");
+    }
+
+    @Test
+    void capturedContext_sharesWindowWithTasksOnOtherThreads() throws Exception {
+        ReadRouting.stickyWindow(WINDOW);
+        ExecutorService callerThread = Executors.newSingleThreadExecutor();
+        try {
+            // a fresh thread, so no earlier write of the test thread opens the window
+            callerThread.submit(() -> {
+                assertFalse(ReadRouting.primaryRequired());
+                ReadRouting.Context caller = ReadRouting.capture();
+
+                CompletableFuture.runAsync(() -> {
+                    try (ReadRouting.Scope ignored = caller.apply()) {
+                        ReadRouting.recordWrite();
+                    }
+                }).get();
+
+                assertTrue(ReadRouting.primaryRequired(), "a write made for this thread opens its window");
+                ReadRouting.Context afterWrite = ReadRouting.capture();
+                assertTrue(CompletableFuture.supplyAsync(() -> {
+                    try (ReadRouting.Scope ignored = afterWrite.apply()) {
+                        return ReadRouting.primaryRequired();
+                    }
+                }).get());
+                assertFalse(CompletableFuture.supplyAsync(ReadRouting::primaryRequired).get());
+                return null;
+            }).get();
+        } finally {
+            callerThread.shutdown();
+        }
+    }
+
+    @Test
+    void primaryScope_overridesReplicaRequest() {
+        try (ReadRouting.Scope ignored = ReadRouting.primary();
+             ReadRouting.Scope replica = ReadRouting.replica()) {
+            assertFalse(ReadRouting.isReplicaRequested());
+            assertTrue(ReadRouting.primaryRequired());
+        }
+        try (ReadRouting.Scope replica = ReadRouting.replica()) {
+            assertTrue(ReadRouting.isReplicaRequested());
+        }
+        assertFalse(ReadRouting.isReplicaRequested());
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.userservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaSelectorTest {
+
+    private final Map<String, Integer> load = new HashMap<>(Map.of("a", 0, "b", 0, "c", 0));
+    private final ReplicaSelector<String> selector = new ReplicaSelector<>(List.of("a", "b", "c"), load::get);
+
+    @Test
+    void select_equalLoad_rotatesRoundRobin() {
+        assertEquals(List.of("a", "b", "c", "a"),
+                List.of(selector.select(), selector.select(), selector.select(), selector.select()));
+    }
+
+    @Test
+    void select_unequalLoad_picksLeastLoaded() {
+        load.put("a", 3);
+        load.put("b", 1);
+        load.put("c", 2);
+
+        assertEquals("b", selector.select());
+        assertEquals("b", selector.select());
+    }
+
+    @Test
+    void select_tieBetweenLeastLoaded_alternates() {
+        load.put("b", 5);
+
+        assertEquals(List.of("a", "c", "c", "a"),
+                List.of(selector.select(), selector.select(), selector.select(), selector.select()));
+    }
+
+    @Test
+    void constructor_noReplicas_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new ReplicaSelector<String>(List.of(), s -> 0));
+    }
+
+    @Test
+    void readRouting_nestedScopes_restorePreviousRoute() {
+        assertFalse(ReadRouting.isReplicaRequested());
+        try (ReadRouting.Scope outer = ReadRouting.replica()) {
+            try (ReadRouting.Scope inner = ReadRouting.replica()) {
+                assertTrue(ReadRouting.isReplicaRequested());
+            }
+            assertTrue(ReadRouting.isReplicaRequested());
+        }
+        assertFalse(ReadRouting.isReplicaRequested());
+    }
+}